@@ -0,0 +1,37 @@
+package com.mozz.htmlnative;
+
+import android.graphics.Typeface;
+import android.support.test.runner.AndroidJUnit4;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.style.StyleSpan;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Yang Tao, 17/8/10.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HNListAdapterAndroidTest {
+
+    @Test
+    public void bindSpanned() throws Exception {
+        Map<String, String> item = new HashMap<>();
+        item.put("name", "Tao");
+
+        // <p>Hi <b>{{name}}</b>!</p> after inline elements are flattened
+        SpannableStringBuilder template = new SpannableStringBuilder("Hi {{name}}!");
+        StyleSpan bold = new StyleSpan(Typeface.BOLD);
+        template.setSpan(bold, 3, 11, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+
+        Spanned bound = (Spanned) HNListAdapter.bind(template, item);
+        Assert.assertTrue(bound.toString().equals("Hi Tao!"));
+        Assert.assertTrue(bound.getSpanStart(bold) == 3);
+        Assert.assertTrue(bound.getSpanEnd(bold) == 6);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mozz.htmlnative;
+
+import android.app.Activity;
+import android.app.Instrumentation;
+import android.content.ContextWrapper;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import com.mozz.htmlnative.view.HNText;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Yang Tao, 17/8/10.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HNViewPoolTest {
+
+    @Rule
+    public ActivityTestRule<TestActivity> mActivityRule = new ActivityTestRule<>(TestActivity
+            .class);
+
+    @After
+    public void tearDown() throws Exception {
+        HNViewPool.clear();
+    }
+
+    @Test
+    public void noViewOfFinishedActivity() throws Exception {
+        final Activity activity = mActivityRule.getActivity();
+        final View[] views = new View[1];
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                views[0] = new HNText(HNViewPool.contextFor(activity, HNText.class));
+                HNViewPool.release(views[0], 10);
+            }
+        });
+
+        activity.finish();
+        instrumentation.waitForIdleSync();
+
+        // the pooled view no longer refers to the activity
+        Assert.assertTrue(((ContextWrapper) views[0].getContext()).getBaseContext() ==
+                activity.getApplicationContext());
+
+        // and is reused by another Context
+        final ContextWrapper other = new ContextWrapper(activity.getApplicationContext());
+        final View[] acquired = new View[1];
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                acquired[0] = HNViewPool.acquire(other, HNText.class);
+            }
+        });
+        Assert.assertTrue(acquired[0] == views[0]);
+        Assert.assertTrue(((ContextWrapper) acquired[0].getContext()).getBaseContext() ==
+                other);
+    }
+}
@@ -0,0 +1,126 @@
+package com.mozz.htmlnative.css;
+
+import com.mozz.htmlnative.exception.AttrApplyException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Yang Tao, 17/7/22.
+ */
+public class AttrsSetTest {
+
+    private static class Owner implements AttrsSet.AttrsOwner {
+        private int mIndex;
+
+        @Override
+        public int attrIndex() {
+            return mIndex;
+        }
+
+        @Override
+        public void setAttrIndex(int newIndex) {
+            mIndex = newIndex;
+        }
+    }
+
+    @Test
+    public void forEach() throws Exception {
+        AttrsSet attrsSet = new AttrsSet("test");
+        Owner owner = new Owner();
+        attrsSet.register(owner);
+        attrsSet.put(owner, "width", "10px");
+        attrsSet.put(owner, "height", "20px");
+
+        final StringBuilder sb = new StringBuilder();
+        attrsSet.forEach(owner, new StyleConsumer() {
+            @Override
+            public void accept(String styleName, Object style) throws AttrApplyException {
+                sb.append(styleName).append('=').append(style).append(';');
+            }
+        });
+
+        Assert.assertTrue(sb.toString().equals("width=10px;height=20px;"));
+    }
+
+    @Test
+    public void getStyleIndexed() throws Exception {
+        AttrsSet attrsSet = new AttrsSet("test");
+        Owner owner = new Owner();
+        attrsSet.register(owner);
+        for (int i = 0; i < 20; i++) {
+            attrsSet.put(owner, "style-" + i, i);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(attrsSet.getStyle(owner, "style-" + i).equals(i));
+        }
+        Assert.assertTrue(attrsSet.getStyle(owner, "style-20") == null);
+
+        // index must be refreshed after put
+        attrsSet.put(owner, "style-20", 20);
+        Assert.assertTrue(attrsSet.getStyle(owner, "style-20").equals(20));
+    }
+
+    @Test
+    public void interleavedPut() throws Exception {
+        AttrsSet attrsSet = new AttrsSet("test", 1);
+        Owner parent = new Owner();
+        Owner child = new Owner();
+        attrsSet.register(parent);
+        attrsSet.put(parent, "width", "10px");
+        attrsSet.register(child);
+        attrsSet.put(child, "width", "20px");
+
+        // parent gets new declaration after child has been registered
+        attrsSet.put(parent, "text", "hello");
+        attrsSet.put(child, "height", "30px");
+
+        Assert.assertTrue(attrsSet.getStyle(parent, "width").equals("10px"));
+        Assert.assertTrue(attrsSet.getStyle(parent, "text").equals("hello"));
+        Assert.assertTrue(attrsSet.getStyle(parent, "height") == null);
+        Assert.assertTrue(attrsSet.getStyle(child, "width").equals("20px"));
+        Assert.assertTrue(attrsSet.getStyle(child, "height").equals("30px"));
+        Assert.assertTrue(attrsSet.getStyle(child, "text") == null);
+    }
+
+    @Test
+    public void getStyleIndexedAfterRelocation() throws Exception {
+        AttrsSet attrsSet = new AttrsSet("test", 1);
+        Owner first = new Owner();
+        Owner second = new Owner();
+        attrsSet.register(first);
+        attrsSet.register(second);
+
+        // both owners are indexed, and moved to the tail by turns
+        for (int i = 0; i < 40; i++) {
+            attrsSet.put(first, "style-" + i, i);
+            attrsSet.put(second, "style-" + i, -i);
+        }
+
+        for (int i = 0; i < 40; i++) {
+            Assert.assertTrue(attrsSet.getStyle(first, "style-" + i).equals(i));
+            Assert.assertTrue(attrsSet.getStyle(second, "style-" + i).equals(-i));
+        }
+    }
+
+    @Test
+    public void textAppearanceResolvedOnWrite() throws Exception {
+        AttrsSet attrsSet = new AttrsSet("test");
+        Owner owner = new Owner();
+        attrsSet.register(owner);
+        attrsSet.put(owner, "width", "10px");
+        Assert.assertTrue(attrsSet.getTextAppearance(owner) == null);
+
+        attrsSet.put(owner, "font-weight", "bold");
+        TextAppearance bold = attrsSet.getTextAppearance(owner);
+        Assert.assertTrue(bold != null && !bold.isEmpty());
+
+        // the same instance until a text style of owner is written again
+        attrsSet.put(owner, "height", "20px");
+        Assert.assertTrue(attrsSet.getTextAppearance(owner) == bold);
+
+        attrsSet.replace(owner, "font-weight", "normal");
+        Assert.assertTrue(!bold.equals(attrsSet.getTextAppearance(owner)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.mozz.htmlnative.dom;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import com.mozz.htmlnative.HNSegment;
+import com.mozz.htmlnative.HtmlTag;
+import com.mozz.htmlnative.parser.Parser;
+import com.mozz.htmlnative.reader.StringTextReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Yang Tao, 17/8/1.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HierarchyFlattenerTest {
+
+    private static String code = "<html><body>\n" +
+            "\t<div><div><p>hello</p></div></div>\n" +
+            "\t<div><img src=\"http://baidu.com\"/></div>\n" +
+            "\t<div id=\"keep\"><p>hello</p></div>\n" +
+            "</body></html>\n";
+
+    @Test
+    public void flatten() throws Exception {
+        HNSegment segment = new Parser(new StringTextReader(code)).process();
+        HierarchyFlattener.flatten(segment.getDom(), segment.getStyleSheet());
+
+        HNDomTree body = segment.getDom();
+        Assert.assertTrue(body.childrenCount() == 3);
+
+        // the nested wrappers of block are collapsed
+        Assert.assertTrue(HtmlTag.P.equals(body.children().get(0).getType()));
+        Assert.assertTrue(body.children().get(0).getParent() == body);
+
+        // a block wrapper of inline element is kept
+        Assert.assertTrue(HtmlTag.DIV.equals(body.children().get(1).getType()));
+
+        // wrapper with id is kept
+        Assert.assertTrue("keep".equals(body.children().get(2).getId()));
+    }
+
+    private static String childSelectorCode = "<html><head><style>\n" +
+            "div > p { color: red; }\n" +
+            "</style></head><body>\n" +
+            "\t<div><div><p>hello</p></div></div>\n" +
+            "</body></html>\n";
+
+    @Test
+    public void keepWrapperMatchedAsAncestor() throws Exception {
+        HNSegment segment = new Parser(new StringTextReader(childSelectorCode)).process();
+        HierarchyFlattener.flatten(segment.getDom(), segment.getStyleSheet());
+
+        // p would no longer be a direct child of div without the wrapper
+        HNDomTree wrapper = segment.getDom().children().get(0);
+        Assert.assertTrue(HtmlTag.DIV.equals(wrapper.getType()));
+        Assert.assertTrue(HtmlTag.DIV.equals(wrapper.children().get(0).getType()));
+        Assert.assertTrue(HtmlTag.P.equals(wrapper.children().get(0).children().get(0).getType()));
+    }
+}
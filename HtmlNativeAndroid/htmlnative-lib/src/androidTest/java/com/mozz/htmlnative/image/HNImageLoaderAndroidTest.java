@@ -0,0 +1,216 @@
+package com.mozz.htmlnative.image;
+
+import android.app.Instrumentation;
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+
+import com.mozz.htmlnative.TestActivity;
+import com.mozz.htmlnative.view.BackgroundViewDelegate;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Yang Tao, 17/8/10.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HNImageLoaderAndroidTest {
+
+    private static final int SIZE = 20;
+
+    @Rule
+    public ActivityTestRule<TestActivity> mActivityRule = new ActivityTestRule<>(TestActivity
+            .class);
+
+    private Instrumentation mInstrumentation;
+    private CountingSource mSource;
+    private ManualExecutor mExecutor;
+    private HNImageLoader mLoader;
+    private String mUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        mInstrumentation = InstrumentationRegistry.getInstrumentation();
+        mSource = new CountingSource();
+        mExecutor = new ManualExecutor();
+        mLoader = new HNImageLoader(InstrumentationRegistry.getTargetContext(), mSource, 0,
+                mExecutor);
+
+        // a new url each time, so the disk cache of former runs is not hit
+        mUrl = "test://image/" + System.nanoTime();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mLoader.shutdown();
+            }
+        });
+    }
+
+    @Test
+    public void coalesce() throws Exception {
+        final ImageView first = new ImageView(mActivityRule.getActivity());
+        final ImageView second = new ImageView(mActivityRule.getActivity());
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                setImage(first);
+                setImage(second);
+            }
+        });
+
+        // same url and size, so they share one load
+        Assert.assertTrue(mExecutor.mQueued.size() == 1);
+        mExecutor.runAll();
+        mInstrumentation.waitForIdleSync();
+
+        Assert.assertTrue(mSource.mOpenCount == 1);
+        Assert.assertTrue(first.getDrawable() != null);
+        Assert.assertTrue(second.getDrawable() != null);
+    }
+
+    @Test
+    public void memoryCacheHit() throws Exception {
+        final ImageView first = new ImageView(mActivityRule.getActivity());
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                setImage(first);
+            }
+        });
+        mExecutor.runAll();
+        mInstrumentation.waitForIdleSync();
+
+        final int executeCount = mExecutor.mExecuteCount;
+        final ImageView second = new ImageView(mActivityRule.getActivity());
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                setImage(second);
+            }
+        });
+
+        Assert.assertTrue(mExecutor.mExecuteCount == executeCount);
+        Assert.assertTrue(second.getDrawable() != null);
+        Assert.assertTrue(mSource.mOpenCount == 1);
+    }
+
+    @Test
+    public void cancelOnDetach() throws Exception {
+        final FrameLayout content = new FrameLayout(mActivityRule.getActivity());
+        final ImageView view = new ImageView(mActivityRule.getActivity());
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                content.addView(view, new FrameLayout.LayoutParams(SIZE, SIZE));
+                mActivityRule.getActivity().setContentView(content);
+            }
+        });
+        mInstrumentation.waitForIdleSync();
+
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mLoader.setImage(mUrl, new BackgroundViewDelegate(view, null, null, true));
+            }
+        });
+        Assert.assertTrue(mExecutor.mQueued.size() == 1);
+
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                content.removeView(view);
+            }
+        });
+
+        Assert.assertTrue(mExecutor.mQueued.isEmpty());
+        mExecutor.runAll();
+        mInstrumentation.waitForIdleSync();
+        Assert.assertTrue(mSource.mOpenCount == 0);
+        Assert.assertTrue(view.getDrawable() == null);
+    }
+
+    /**
+     * Lay out a detached view, and set image to it.
+     */
+    private void setImage(ImageView view) {
+        view.layout(0, 0, SIZE, SIZE);
+        mLoader.setImage(mUrl, new BackgroundViewDelegate(view, null, null, true));
+    }
+
+    private static final class CountingSource implements ImageSource {
+        private final byte[] mData;
+        volatile int mOpenCount;
+
+        CountingSource() {
+            Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+            mData = out.toByteArray();
+        }
+
+        @NonNull
+        @Override
+        public InputStream open(@NonNull String url) {
+            mOpenCount++;
+            return new ByteArrayInputStream(mData);
+        }
+    }
+
+    /**
+     * Keeps the loads until {@link #runAll()} runs them in the calling thread.
+     */
+    private static final class ManualExecutor extends ThreadPoolExecutor {
+        final List<Runnable> mQueued = new ArrayList<>();
+        int mExecuteCount;
+
+        ManualExecutor() {
+            super(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+        }
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            mExecuteCount++;
+            mQueued.add(command);
+        }
+
+        @Override
+        public synchronized boolean remove(Runnable task) {
+            return mQueued.remove(task);
+        }
+
+        void runAll() {
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    if (mQueued.isEmpty()) {
+                        return;
+                    }
+                    next = mQueued.remove(0);
+                }
+                next.run();
+            }
+        }
+    }
+}
@@ -2,10 +2,15 @@ package com.mozz.htmlnative.parser;
 
 import android.graphics.Color;
 import android.support.test.runner.AndroidJUnit4;
+import android.text.Spanned;
+import android.text.style.ClickableSpan;
 
 import com.mozz.htmlnative.HNSegment;
+import com.mozz.htmlnative.HtmlTag;
+import com.mozz.htmlnative.StyleSheetLoader;
 import com.mozz.htmlnative.TestGlobal;
 import com.mozz.htmlnative.css.Background;
+import com.mozz.htmlnative.dom.HNDomTree;
 import com.mozz.htmlnative.exception.HNSyntaxError;
 import com.mozz.htmlnative.reader.StringTextReader;
 
@@ -82,6 +87,63 @@ public class ParserTest {
 
     }
 
+    private static String codeWithLink = "<html><head>\n" +
+            "\t<link rel=\"stylesheet\" href=\"base.css\">\n" +
+            "</head><template><body>\n" +
+            "\t<p class=\"title\">hello</p>\n" +
+            "</body></template></html>";
+
+    @Test
+    public void linkStyleSheet() throws Exception {
+        final int[] loadCount = {0};
+        StyleSheetCache.clear();
+        StyleSheetCache.setLoader(new StyleSheetLoader() {
+            @Override
+            public String loadStyleSheet(String href) {
+                loadCount[0]++;
+                return ".title { color: #fff; }";
+            }
+        });
+
+        HNSegment first = new Parser(new StringTextReader(codeWithLink)).process();
+        HNSegment second = new Parser(new StringTextReader(codeWithLink)).process();
+
+        Assert.assertTrue(first.getStyleSheet().getImports().size() == 1);
+        Assert.assertTrue(first.getStyleSheet().getImports().get(0) == second.getStyleSheet()
+                .getImports().get(0));
+        Assert.assertTrue(first.getStyleSheet().getImports().get(0).isSealed());
+        Assert.assertTrue(loadCount[0] == 1);
+
+        StyleSheetCache.setLoader(null);
+        StyleSheetCache.clear();
+    }
+
+    private static String codeWithInlineText = "<html><body>\n" +
+            "\t<div>hello <b>world</b> and <a href=\"http://baidu.com\">link</a></div>\n" +
+            "\t<p>para <b>bold</b> end</p>\n" +
+            "</body></html>\n";
+
+    @Test
+    public void flattenInlineText() throws Exception {
+        HNSegment segment = new Parser(new StringTextReader(codeWithInlineText)).process();
+
+        HNDomTree div = segment.getDom().children().get(0);
+        Assert.assertTrue(div.childrenCount() == 1);
+
+        HNDomTree merged = div.children().get(0);
+        Assert.assertTrue(HtmlTag.INLINE_TEXT_TAG.equals(merged.getType()));
+
+        Object text = segment.getInlineStyles().getStyle(merged, "text");
+        Assert.assertTrue(text instanceof Spanned);
+        Assert.assertTrue(text.toString().startsWith("hello world"));
+        Assert.assertTrue(((Spanned) text).getSpans(0, ((Spanned) text).length(), ClickableSpan
+                .class).length == 1);
+
+        HNDomTree p = segment.getDom().children().get(1);
+        Assert.assertTrue(p.isLeaf());
+        Assert.assertTrue(segment.getInlineStyles().getStyle(p, "text") instanceof Spanned);
+    }
+
     private void debug(String msg) {
         System.out.println(msg);
     }
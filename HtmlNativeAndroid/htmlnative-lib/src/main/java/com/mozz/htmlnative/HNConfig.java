@@ -4,11 +4,17 @@ import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.view.View;
 import android.webkit.WebView;
 
 import com.mozz.htmlnative.http.HNHttpClient;
+import com.mozz.htmlnative.image.HNImageLoader;
+import com.mozz.htmlnative.image.ImageSource;
+import com.mozz.htmlnative.image.UrlImageSource;
+import com.mozz.htmlnative.parser.StyleSheetCache;
 import com.mozz.htmlnative.script.lua.EmptyHttpClient;
+import com.mozz.htmlnative.utils.MainHandlerUtils;
 import com.mozz.htmlnative.view.BackgroundViewDelegate;
 
 /**
@@ -20,10 +26,21 @@ public class HNConfig {
         HNRenderer.registerViewFactory(WebView.class.getName(), DefaultWebViewFactory.sInstance);
     }
 
-    private ImageFetcher mImageFetcher = DefaultImageAdapter.sInstance;
+    private ImageFetcher mImageFetcher = new MainThreadImageFetcher(DefaultImageAdapter.sInstance);
     private OnHrefClick mOnHrefClick = DefaultOnHrefClick.sInstance;
     private HNHttpClient mHttpClient = EmptyHttpClient.instance;
     private ScriptCallback mScriptCallback;
+    private StyleSheetLoader mStyleSheetLoader;
+    private boolean mFlattenHierarchy = false;
+    private boolean mRenderInBackground = false;
+    private boolean mTimeSlicedRender = false;
+    private boolean mLazyRender = false;
+    private int mViewPoolSize = 0;
+    private boolean mCompileRenderPlan = false;
+    private boolean mPreMeasureText = false;
+    private ImageSource mImageSource;
+    private int mImageMemoryBudget = 0;
+    private HNImageLoader mImageLoader;
 
     public ImageFetcher getImageViewAdapter() {
         return mImageFetcher;
@@ -33,14 +50,57 @@ public class HNConfig {
         return mOnHrefClick;
     }
 
-    void install() {
+    void install(Context context) {
         HNScriptRunnerThread.setErrorCallback(mScriptCallback);
+        StyleSheetCache.setLoader(mStyleSheetLoader);
+
+        if (mImageSource != null) {
+            mImageLoader = new HNImageLoader(context, mImageSource, mImageMemoryBudget);
+            mImageFetcher = new MainThreadImageFetcher(mImageLoader);
+        }
     }
 
     public HNHttpClient getHttpClient() {
         return mHttpClient;
     }
 
+    public boolean isFlattenHierarchy() {
+        return mFlattenHierarchy;
+    }
+
+    public boolean isRenderInBackground() {
+        return mRenderInBackground;
+    }
+
+    public boolean isTimeSlicedRender() {
+        return mTimeSlicedRender;
+    }
+
+    public boolean isLazyRender() {
+        return mLazyRender;
+    }
+
+    public int getViewPoolSize() {
+        return mViewPoolSize;
+    }
+
+    public boolean isCompileRenderPlan() {
+        return mCompileRenderPlan;
+    }
+
+    public boolean isPreMeasureText() {
+        return mPreMeasureText;
+    }
+
+    /**
+     * @return the built-in image loader, or null if {@link Builder#setImageSource(ImageSource)}
+     * is not set
+     */
+    @Nullable
+    HNImageLoader getImageLoader() {
+        return mImageLoader;
+    }
+
     /**
      * @author Yang Tao, 17/3/11.
      */
@@ -85,6 +145,29 @@ public class HNConfig {
         }
     }
 
+    /**
+     * Views may be styled out of main thread, see {@link Builder#setRenderInBackground(boolean)},
+     * while image loaders usually require main thread, so always call fetcher in main thread.
+     */
+    private static final class MainThreadImageFetcher implements ImageFetcher {
+
+        private final ImageFetcher mFetcher;
+
+        MainThreadImageFetcher(ImageFetcher fetcher) {
+            mFetcher = fetcher;
+        }
+
+        @Override
+        public void setImage(final String src, final BackgroundViewDelegate imageView) {
+            MainHandlerUtils.instance().runOnMainThread(new Runnable() {
+                @Override
+                public void run() {
+                    mFetcher.setImage(src, imageView);
+                }
+            });
+        }
+    }
+
     /**
      * @author Yang Tao, 17/3/8.
      */
@@ -114,11 +197,30 @@ public class HNConfig {
 
         public Builder setImageFetcher(ImageFetcher adapter) {
             if (adapter != null) {
-                sConfig.mImageFetcher = adapter;
+                sConfig.mImageFetcher = new MainThreadImageFetcher(adapter);
             }
             return this;
         }
 
+        /**
+         * Load images by the built-in {@link HNImageLoader}, which reads the images from source,
+         * such as {@link UrlImageSource}. It replaces the fetcher set by
+         * {@link #setImageFetcher(ImageFetcher)}.
+         */
+        public Builder setImageSource(ImageSource source) {
+            sConfig.mImageSource = source;
+            return this;
+        }
+
+        /**
+         * Max bytes of the decoded bitmaps kept by the built-in {@link HNImageLoader}, in its
+         * memory cache and bitmap pool. Default is 0, which means 1/8 of the max heap.
+         */
+        public Builder setImageMemoryBudget(int imageMemoryBudget) {
+            sConfig.mImageMemoryBudget = imageMemoryBudget;
+            return this;
+        }
+
         public Builder setOnHrefClick(OnHrefClick onHrefClick) {
             if (onHrefClick != null) {
                 sConfig.mOnHrefClick = onHrefClick;
@@ -141,6 +243,104 @@ public class HNConfig {
             return this;
         }
 
+        public Builder setStyleSheetLoader(StyleSheetLoader loader) {
+            if (loader != null) {
+                sConfig.mStyleSheetLoader = loader;
+            }
+
+            return this;
+        }
+
+        /**
+         * Collapse the redundant wrapper divs before rendering, so that the view hierarchy is
+         * shallower. Segment with script is never flattened. Default is false.
+         *
+         * @see com.mozz.htmlnative.dom.HierarchyFlattener
+         */
+        public Builder setFlattenHierarchy(boolean flattenHierarchy) {
+            sConfig.mFlattenHierarchy = flattenHierarchy;
+            return this;
+        }
+
+        /**
+         * Create and style the views on render thread, only attaching them is left to main
+         * thread. Segment containing views which must be created in main thread, such as
+         * WebView, or views created by {@link HNRenderer.ViewFactory}, or segment with script, is
+         * still rendered in main thread. Default is false.
+         * <p>
+         * When set together with {@link #setTimeSlicedRender(boolean)}, rendering in background
+         * wins, segments rendered in main thread as above are still time sliced.
+         */
+        public Builder setRenderInBackground(boolean renderInBackground) {
+            sConfig.mRenderInBackground = renderInBackground;
+            return this;
+        }
+
+        /**
+         * When rendering in main thread, render the views in slices across frames instead of
+         * in one go, the root view is returned after the first slice and the content on top
+         * shows first. Default is false. Segments rendered in background by
+         * {@link #setRenderInBackground(boolean)} are not sliced.
+         *
+         * @see HNSlicedRenderer
+         */
+        public Builder setTimeSlicedRender(boolean timeSlicedRender) {
+            sConfig.mTimeSlicedRender = timeSlicedRender;
+            return this;
+        }
+
+        /**
+         * Only render the top-level elements around the first screen, the ones below are left
+         * as placeholders and rendered when scrolled near. Segment with script is always
+         * fully rendered. Default is false.
+         *
+         * @see HNLazyRenderer
+         */
+        public Builder setLazyRender(boolean lazyRender) {
+            sConfig.mLazyRender = lazyRender;
+            return this;
+        }
+
+        /**
+         * Keep the views released by {@link HNativeEngine#recycleView(View)} for reusing, at most
+         * viewPoolSize views for each class. Default is 0, which means views are not reused.
+         * When set, the views which can be pooled get a
+         * {@link android.content.MutableContextWrapper} of the Context passed in as their Context.
+         *
+         * @see HNViewPool
+         */
+        public Builder setViewPoolSize(int viewPoolSize) {
+            sConfig.mViewPoolSize = viewPoolSize;
+            return this;
+        }
+
+        /**
+         * Compile each segment into a flat list of instructions at its first render, and run
+         * them instead of walking the dom tree. It pays off for the segments rendered many times,
+         * such as the ones cached by {@link HNSegment#load(java.io.InputStream, String)}.
+         * Default is false.
+         *
+         * @see HNRenderPlan
+         */
+        public Builder setCompileRenderPlan(boolean compileRenderPlan) {
+            sConfig.mCompileRenderPlan = compileRenderPlan;
+            return this;
+        }
+
+        /**
+         * Lay out the text of each {@link com.mozz.htmlnative.view.HNText} once on a background
+         * thread after it is styled, to warm up the text layout cache for its first measure.
+         * The layout itself is dropped, and before API 28 text layout of all threads shares one
+         * lock, so it may slow down the main thread instead, measure it on target devices before
+         * enabling. Default is false.
+         *
+         * @see com.mozz.htmlnative.view.TextPreMeasurer
+         */
+        public Builder setPreMeasureText(boolean preMeasureText) {
+            sConfig.mPreMeasureText = preMeasureText;
+            return this;
+        }
+
         public HNConfig build() {
             return sConfig;
         }
@@ -0,0 +1,237 @@
+package com.mozz.htmlnative;
+
+import android.content.Context;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.util.DisplayMetrics;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.mozz.htmlnative.css.AttrsSet;
+import com.mozz.htmlnative.css.Styles;
+import com.mozz.htmlnative.css.stylehandler.StyleHandlerFactory;
+import com.mozz.htmlnative.css.stylehandler.StyleHandlers;
+import com.mozz.htmlnative.dom.HNDomTree;
+import com.mozz.htmlnative.utils.ParametersUtils;
+import com.mozz.htmlnative.view.HNDivLayout;
+import com.mozz.htmlnative.view.HNRootView;
+import com.mozz.htmlnative.view.LayoutParamsCreator;
+
+import java.util.ArrayDeque;
+
+/**
+ * Render the top-level elements of body which are around the first screen only. The ones below
+ * are replaced by empty placeholders of estimated height, and rendered in document order when
+ * the {@link HNRootView} is scrolled near them.
+ * <p>
+ * The estimation only affects the scroll range before an element is rendered, so a rough one,
+ * from declared height, images and length of text, is good enough.
+ *
+ * @author Yang Tao, 17/8/3.
+ */
+
+final class HNLazyRenderer implements HNRootView.OnViewportChangedListener, Runnable {
+
+    private static final String TEXT = "text";
+
+    /**
+     * elements within this many screens below the visible area are rendered ahead.
+     */
+    private static final int PRELOAD_SCREENS = 1;
+
+    private static final float IMAGE_HEIGHT_DP = 200;
+    private static final float TEXT_SIZE_SP = 16;
+    private static final float LINE_HEIGHT_MULTIPLIER = 1.2f;
+
+    /**
+     * average width of a char, in em.
+     */
+    private static final float CHAR_WIDTH_EM = 0.6f;
+
+    private final Context mContext;
+    private final HNSandBoxContext mSandBoxContext;
+    private final HNSegment mSegment;
+    private final HNRootView mRootView;
+    private final ViewGroup mBody;
+    private final StyleHandlers mBodyHandlers;
+    private final InheritedStyle mBodyStyle;
+
+    private final ArrayDeque<Placeholder> mPending = new ArrayDeque<>();
+
+    private boolean mCheckPosted;
+
+    private HNLazyRenderer(Context context, HNSandBoxContext sandBoxContext, HNSegment segment,
+                           HNRootView rootView, ViewGroup body, InheritedStyle bodyStyle) {
+        mContext = context;
+        mSandBoxContext = sandBoxContext;
+        mSegment = segment;
+        mRootView = rootView;
+        mBody = body;
+        mBodyHandlers = StyleHandlerFactory.handlersOf(body);
+        mBodyStyle = bodyStyle;
+    }
+
+    /**
+     * Render the body of segment, with the elements out of the first screen left as
+     * placeholders.
+     *
+     * @return the body view, to be added to rootView by caller
+     */
+    static View render(@NonNull Context context, @NonNull HNSandBoxContext sandBoxContext,
+                       @NonNull HNSegment segment, @NonNull HNRootView rootView, @NonNull
+                               LayoutParamsCreator rootCreator) throws HNRenderer
+            .HNRenderException {
+        HNDomTree dom = segment.getDom();
+        InheritedStyle bodyStyle = new InheritedStyle().inherit();
+
+        View body = HNRenderer.createView(dom, dom, sandBoxContext, rootView, StyleHandlerFactory
+                .handlersOf(rootView), context, segment.getInlineStyles(), rootCreator, segment
+                .getStyleSheet(), bodyStyle);
+
+        if (body == null || dom.isLeaf() || !(body instanceof ViewGroup)) {
+            return body;
+        }
+
+        HNLazyRenderer renderer = new HNLazyRenderer(context, sandBoxContext, segment,
+                rootView, (ViewGroup) body, bodyStyle);
+
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        int budget = metrics.heightPixels * (1 + PRELOAD_SCREENS);
+        int estimated = 0;
+
+        // only the block flow of div is sure to keep the position of the following elements
+        boolean lazy = body instanceof HNDivLayout;
+
+        for (HNDomTree child : dom.children()) {
+            if (!lazy || estimated < budget) {
+                renderer.renderChild(child, -1);
+                estimated += estimateHeight(child, segment.getInlineStyles(), metrics
+                        .widthPixels);
+            } else {
+                renderer.addPlaceholder(child, estimateHeight(child, segment.getInlineStyles(),
+                        metrics.widthPixels));
+            }
+        }
+
+        if (!renderer.mPending.isEmpty()) {
+            HNLog.d(HNLog.RENDER, renderer.mPending.size() + " elements are rendered lazily");
+            rootView.addOnViewportChangedListener(renderer);
+        }
+
+        return body;
+    }
+
+    @Override
+    public void onViewportChanged(HNRootView rootView, int scrollY, int viewportHeight) {
+        if (!mCheckPosted) {
+            mCheckPosted = true;
+            rootView.post(this);
+        }
+    }
+
+    @Override
+    @MainThread
+    public void run() {
+        mCheckPosted = false;
+
+        int viewportHeight = mRootView.getHeight();
+        if (viewportHeight == 0) {
+            return;
+        }
+
+        int bottom = mRootView.getScrollY() + viewportHeight * (1 + PRELOAD_SCREENS);
+
+        while (!mPending.isEmpty()) {
+            Placeholder placeholder = mPending.peekFirst();
+            if (mBody.getTop() + placeholder.mView.getTop() > bottom) {
+                break;
+            }
+
+            mPending.pollFirst();
+            int index = mBody.indexOfChild(placeholder.mView);
+            if (index >= 0) {
+                mBody.removeViewAt(index);
+                renderChild(placeholder.mDom, index);
+            }
+        }
+
+        if (mPending.isEmpty()) {
+            mRootView.removeOnViewportChangedListener(this);
+        }
+    }
+
+    private void renderChild(HNDomTree child, int index) {
+        LayoutParamsCreator creator = new LayoutParamsCreator();
+
+        View v = null;
+        try {
+            v = HNRenderer.renderInternal(mContext, mSandBoxContext, child, mSegment, mBody,
+                    mBodyHandlers, creator, mRootView, mSegment.getStyleSheet(), mBodyStyle);
+        } catch (HNRenderer.HNRenderException e) {
+            e.printStackTrace();
+        }
+
+        if (v == null) {
+            HNLog.e(HNLog.RENDER, "error when inflating " + child.getType());
+        } else if (index < 0) {
+            HNRenderer.addView(mBody, v, creator);
+        } else {
+            HNRenderer.addView(mBody, v, creator, index);
+        }
+    }
+
+    private void addPlaceholder(HNDomTree child, int height) {
+        LayoutParamsCreator creator = new LayoutParamsCreator();
+        creator.width = ViewGroup.LayoutParams.MATCH_PARENT;
+        creator.height = height;
+
+        View view = new View(mContext);
+        HNRenderer.addView(mBody, view, creator);
+        mPending.add(new Placeholder(child, view));
+    }
+
+    /**
+     * @param width width of screen in px
+     * @return rough height of tree in px
+     */
+    static int estimateHeight(HNDomTree tree, AttrsSet attrsSet, int width) {
+        Object height = attrsSet.getStyle(tree, Styles.ATTR_HEIGHT);
+        if (height != null) {
+            try {
+                return (int) ParametersUtils.toPixel(height).getPxValue();
+            } catch (ParametersUtils.ParametersParseException ignored) {
+                // such as a percent, estimate by content then
+            }
+        }
+
+        if (HtmlTag.IMG.equals(tree.getType())) {
+            return (int) ParametersUtils.dpToPx(IMAGE_HEIGHT_DP);
+        }
+
+        int estimated = 0;
+
+        Object text = attrsSet.getStyle(tree, TEXT);
+        int length = text instanceof CharSequence ? ((CharSequence) text).length() : tree
+                .getInner() != null ? tree.getInner().length() : 0;
+        if (length > 0 && width > 0) {
+            float textSize = ParametersUtils.spToPx(TEXT_SIZE_SP);
+            int lines = (int) Math.ceil(length * textSize * CHAR_WIDTH_EM / width);
+            estimated += (int) (lines * textSize * LINE_HEIGHT_MULTIPLIER);
+        }
+
+        for (HNDomTree child : tree.children()) {
+            estimated += estimateHeight(child, attrsSet, width);
+        }
+        return estimated;
+    }
+
+    private static final class Placeholder {
+        final HNDomTree mDom;
+        final View mView;
+
+        Placeholder(HNDomTree dom, View view) {
+            mDom = dom;
+            mView = view;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.mozz.htmlnative;
+
+import android.content.Context;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.mozz.htmlnative.css.AttrsSet;
+import com.mozz.htmlnative.css.Styles;
+import com.mozz.htmlnative.css.stylehandler.StyleHandlerFactory;
+import com.mozz.htmlnative.dom.DomElement;
+import com.mozz.htmlnative.dom.HNDomTree;
+import com.mozz.htmlnative.exception.AttrApplyException;
+import com.mozz.htmlnative.view.HNListView;
+import com.mozz.htmlnative.view.HNRootView;
+import com.mozz.htmlnative.view.LayoutParamsCreator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adapter of {@link HNListView}, renders the item template of {@code <list>} once for each
+ * ViewHolder, so all the styles of template are resolved only when a ViewHolder is created.
+ * Binding an item only re-applies the styles containing {@code {{key}}}, with key replaced by
+ * the value of item, for example:
+ * <pre>
+ * &lt;list id="feed" style="height:600px"&gt;
+ *     &lt;div&gt;&lt;img src="{{icon}}"/&gt;&lt;p&gt;{{title}}&lt;/p&gt;&lt;/div&gt;
+ * &lt;/list&gt;
+ * </pre>
+ * Items are set by script, as a table of tables, {@code feed.setData({{title="hello"}})}.
+ *
+ * @author Yang Tao, 17/8/4.
+ */
+
+public final class HNListAdapter extends RecyclerView.Adapter<HNListAdapter.ItemHolder> {
+
+    private static final String BINDING_START = "{{";
+    private static final String BINDING_END = "}}";
+    private static final String TEXT = "text";
+
+    private final Context mContext;
+    private final HNSandBoxContext mSandBoxContext;
+    private final HNSegment mSegment;
+    private final HNDomTree mTemplate;
+    private final HNRootView mRootView;
+    private final InheritedStyle mListStyle;
+
+    private List<Map<String, String>> mItems = Collections.emptyList();
+
+    private HNListAdapter(Context context, HNSandBoxContext sandBoxContext, HNSegment segment,
+                          HNDomTree template, HNRootView rootView, InheritedStyle listStyle) {
+        mContext = context;
+        mSandBoxContext = sandBoxContext;
+        mSegment = segment;
+        mTemplate = template;
+        mRootView = rootView;
+        mListStyle = listStyle;
+    }
+
+    /**
+     * Take the child of dom as item template of listView.
+     *
+     * @param listStyle inherit styles of list, the parent snapshot of template
+     */
+    static void attach(@NonNull HNListView listView, @NonNull HNDomTree dom, @NonNull Context
+            context, @NonNull HNSandBoxContext sandBoxContext, @NonNull HNSegment segment,
+                       HNRootView rootView, @NonNull InheritedStyle listStyle) {
+        if (dom.childrenCount() != 1) {
+            HNLog.e(HNLog.RENDER, "<list> should have exactly one child as item template, but " +
+                    "has " + dom.childrenCount() + ", the first one is used.");
+            if (dom.isLeaf()) {
+                return;
+            }
+        }
+
+        listView.setAdapter(new HNListAdapter(context, sandBoxContext, segment, dom.children()
+                .get(0), rootView, listStyle));
+    }
+
+    @MainThread
+    public void setItems(@NonNull List<Map<String, String>> items) {
+        mItems = items;
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItems.size();
+    }
+
+    @Override
+    public ItemHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        LayoutParamsCreator creator = new LayoutParamsCreator();
+
+        View itemView = null;
+        try {
+            itemView = HNRenderer.renderInternal(mContext, mSandBoxContext, mTemplate, mSegment,
+                    parent, StyleHandlerFactory.handlersOf(parent), creator, mRootView, mSegment
+                            .getStyleSheet(), mListStyle, true);
+        } catch (HNRenderer.HNRenderException e) {
+            e.printStackTrace();
+        }
+
+        ItemHolder holder;
+        if (itemView == null) {
+            HNLog.e(HNLog.RENDER, "error when inflating item template " + mTemplate.getType());
+            holder = new ItemHolder(new View(mContext));
+        } else {
+            holder = new ItemHolder(itemView);
+            collectBindings(mTemplate, itemView, holder.mBindings);
+        }
+
+        holder.itemView.setLayoutParams(LayoutParamsCreator.createLayoutParams(parent, creator));
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(ItemHolder holder, int position) {
+        Map<String, String> item = mItems.get(position);
+        for (Binding binding : holder.mBindings) {
+            binding.bind(item);
+        }
+    }
+
+    /**
+     * Walk through template and the views rendered from it side by side, find out the styles
+     * to be bound.
+     */
+    private void collectBindings(HNDomTree dom, View view, List<Binding> out) {
+        AttrsSet attrsSet = mSegment.getInlineStyles();
+        Iterator<Styles.StyleEntry> itr = attrsSet.iterator(dom);
+        while (itr.hasNext()) {
+            Styles.StyleEntry entry = itr.next();
+            // text of element is kept as CharSequence, Spanned if it contains inline elements
+            if (isBinding(entry.getStyle())) {
+                out.add(new Binding(view, entry.getStyleName(), (CharSequence) entry.getStyle()));
+            }
+        }
+
+        if (HtmlTag.INNER_TREE_TAG.equals(dom.getType()) && isBinding(dom.getInner())) {
+            out.add(new Binding(view, TEXT, dom.getInner()));
+        }
+
+        if (dom.isLeaf() || !(view instanceof ViewGroup)) {
+            return;
+        }
+
+        ViewGroup viewGroup = (ViewGroup) view;
+        if (viewGroup.getChildCount() != dom.childrenCount()) {
+            HNLog.e(HNLog.RENDER, "children of " + dom.getType() + " in item template are not " +
+                    "fully rendered, bindings of them are ignored");
+            return;
+        }
+
+        for (int i = 0; i < viewGroup.getChildCount(); i++) {
+            collectBindings(dom.children().get(i), viewGroup.getChildAt(i), out);
+        }
+    }
+
+    static boolean isBinding(Object style) {
+        return style instanceof CharSequence && style.toString().contains(BINDING_START);
+    }
+
+    /**
+     * Replace the {@code {{key}}} in template with the value of item, key missing in item is
+     * replaced by empty string.
+     */
+    static String bind(@NonNull String template, @NonNull Map<String, String> item) {
+        StringBuilder sb = new StringBuilder(template.length());
+        int position = 0;
+        while (true) {
+            int start = template.indexOf(BINDING_START, position);
+            if (start < 0) {
+                break;
+            }
+
+            int end = template.indexOf(BINDING_END, start + BINDING_START.length());
+            if (end < 0) {
+                break;
+            }
+
+            sb.append(template, position, start);
+            String value = item.get(template.substring(start + BINDING_START.length(), end)
+                    .trim());
+            if (value != null) {
+                sb.append(value);
+            }
+            position = end + BINDING_END.length();
+        }
+        sb.append(template, position, template.length());
+        return sb.toString();
+    }
+
+    /**
+     * Same as {@link #bind(String, Map)}, but keeps the spans of template, such as the bold of
+     * {@code <b>{{name}}</b>}. A span covering part of a binding covers the whole value.
+     */
+    static CharSequence bind(@NonNull Spanned template, @NonNull Map<String, String> item) {
+        String text = template.toString();
+        SpannableStringBuilder sb = new SpannableStringBuilder();
+
+        // each binding takes 4 ints: start and end in template, start and end in result
+        int[] bindings = new int[8];
+        int count = 0;
+        int position = 0;
+        while (true) {
+            int start = text.indexOf(BINDING_START, position);
+            if (start < 0) {
+                break;
+            }
+
+            int end = text.indexOf(BINDING_END, start + BINDING_START.length());
+            if (end < 0) {
+                break;
+            }
+
+            sb.append(text, position, start);
+            int boundStart = sb.length();
+            String value = item.get(text.substring(start + BINDING_START.length(), end).trim());
+            if (value != null) {
+                sb.append(value);
+            }
+            position = end + BINDING_END.length();
+
+            if (count == bindings.length) {
+                bindings = Arrays.copyOf(bindings, count << 1);
+            }
+            bindings[count++] = start;
+            bindings[count++] = position;
+            bindings[count++] = boundStart;
+            bindings[count++] = sb.length();
+        }
+        sb.append(text, position, text.length());
+
+        for (Object span : template.getSpans(0, text.length(), Object.class)) {
+            sb.setSpan(span, mapOffset(template.getSpanStart(span), bindings, count, false),
+                    mapOffset(template.getSpanEnd(span), bindings, count, true), template
+                            .getSpanFlags(span));
+        }
+        return sb;
+    }
+
+    /**
+     * Map an offset of template to the offset of bound text.
+     *
+     * @param isEnd whether offset is the end of a span, an end inside a binding is mapped to the
+     *              end of value, otherwise the start.
+     */
+    private static int mapOffset(int offset, int[] bindings, int count, boolean isEnd) {
+        int delta = 0;
+        for (int i = 0; i < count; i += 4) {
+            if (offset <= bindings[i]) {
+                break;
+            }
+            if (offset < bindings[i + 1]) {
+                return isEnd ? bindings[i + 3] : bindings[i + 2];
+            }
+            delta = bindings[i + 3] - bindings[i + 1];
+        }
+        return offset + delta;
+    }
+
+    static final class ItemHolder extends RecyclerView.ViewHolder {
+
+        private final List<Binding> mBindings = new ArrayList<>();
+
+        ItemHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    private final class Binding {
+        private final View mView;
+        private final String mStyleName;
+        private final CharSequence mTemplate;
+
+        /**
+         * the value bound last time, the style is not applied again if item has the same one.
+         */
+        private String mBound;
+
+        Binding(View view, String styleName, CharSequence template) {
+            mView = view;
+            mStyleName = styleName;
+            mTemplate = template;
+        }
+
+        void bind(Map<String, String> item) {
+            CharSequence value;
+            if (mTemplate instanceof Spanned) {
+                value = HNListAdapter.bind((Spanned) mTemplate, item);
+            } else {
+                value = HNListAdapter.bind(mTemplate.toString(), item);
+            }
+            // spans come from the same template, so comparing the text is enough
+            if (value.toString().equals(mBound)) {
+                return;
+            }
+            mBound = value.toString();
+
+            if (TEXT.equals(mStyleName) && mView instanceof TextView) {
+                ((TextView) mView).setText(value);
+                return;
+            }
+
+            ViewGroup parent = mView.getParent() instanceof ViewGroup ? (ViewGroup) mView
+                    .getParent() : null;
+            LayoutParamsCreator creator = new LayoutParamsCreator(mView.getLayoutParams());
+            try {
+                HNRenderer.renderStyle(mView.getContext(), mSandBoxContext, mView, (DomElement)
+                        mView.getTag(), creator, parent, mStyleName, value, false, null);
+                LayoutParamsCreator.createLayoutParams(creator, mView.getLayoutParams());
+            } catch (AttrApplyException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -22,15 +22,17 @@ public final class HNLog {
     public static final int CSS_PARSER = 6;
     public static final int DOM = 7;
     public static final int STYLE = 8;
+    public static final int IMAGE = 9;
 
     @Retention(SOURCE)
-    @IntDef({RENDER, ATTR, SANDBOX, PROCESS_THREAD, LEXER, PARSER, CSS_PARSER, DOM, STYLE})
+    @IntDef({RENDER, ATTR, SANDBOX, PROCESS_THREAD, LEXER, PARSER, CSS_PARSER, DOM, STYLE,
+            IMAGE})
     @interface EventType {
     }
 
 
     private static final String[] TAG_NAME = {"Renderer", "AttrsSet", "Sandbox", "ProcessThread",
-            "Lexer", "Parser", "CssParser", "Dom", "Style"};
+            "Lexer", "Parser", "CssParser", "Dom", "Style", "Image"};
 
     private static int sDebugLevel = 0;
 
@@ -0,0 +1,432 @@
+package com.mozz.htmlnative;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import com.mozz.htmlnative.css.AttrsSet;
+import com.mozz.htmlnative.css.ComputedStyle;
+import com.mozz.htmlnative.css.InheritStylesRegistry;
+import com.mozz.htmlnative.css.StyleConsumer;
+import com.mozz.htmlnative.css.StyleSheet;
+import com.mozz.htmlnative.css.Styles;
+import com.mozz.htmlnative.css.TextAppearance;
+import com.mozz.htmlnative.css.selector.CssSelector;
+import com.mozz.htmlnative.css.stylehandler.StyleHandlerFactory;
+import com.mozz.htmlnative.css.stylehandler.StyleHandlers;
+import com.mozz.htmlnative.dom.AttachedElement;
+import com.mozz.htmlnative.dom.HNDomTree;
+import com.mozz.htmlnative.exception.AttrApplyException;
+import com.mozz.htmlnative.view.HNListView;
+import com.mozz.htmlnative.view.HNRootView;
+import com.mozz.htmlnative.view.HNText;
+import com.mozz.htmlnative.view.LayoutParamsCreator;
+import com.mozz.htmlnative.view.TextPreMeasurer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dom tree of a segment compiled into a flat list of instructions, so that rendering it again
+ * neither walks the tree, matches selectors nor resolves the inherit styles.
+ * <p>
+ * The styles of each element are resolved into one list when compiling, in the order
+ * {@link HNRenderer} applies them: inherit styles of parent, matched selectors of linked
+ * StyleSheets and then the segment's own one, and at last the inline styles. Elements with the
+ * same list share it. The values are still parsed by the StyleHandlers, as how to parse them
+ * depends on the view, except the text styles, which are resolved into one
+ * {@link TextAppearance} for each list and shared by the TextViews.
+ * <p>
+ * The plan is compiled once by {@link HNSegment#getRenderPlan()} and kept by the segment, so
+ * that the dom tree and StyleSheet must not be changed after the first render.
+ *
+ * @author Yang Tao, 17/8/7.
+ */
+
+final class HNRenderPlan {
+
+    /**
+     * create the view of node arg, jump is the instruction after the subtree of node
+     */
+    private static final int OP_CREATE = 1;
+
+    /**
+     * register the id of node arg
+     */
+    private static final int OP_REGISTER_ID = 2;
+
+    /**
+     * apply the style list arg
+     */
+    private static final int OP_APPLY_STYLES = 3;
+
+    /**
+     * commit the applied styles, and add the view to current parent
+     */
+    private static final int OP_COMMIT = 4;
+
+    /**
+     * make the view of node arg the current parent, jump is the matching {@link #OP_POP}
+     */
+    private static final int OP_PUSH = 5;
+
+    private static final int OP_POP = 6;
+
+    private final int[] mOps;
+    private final int[] mArgs;
+    private final int[] mJumps;
+    private final HNDomTree[] mNodes;
+    private final StyleList[] mStyleLists;
+
+    /**
+     * inherit styles of nodes having children, which list passes to its item template
+     */
+    private final InheritedStyle[] mNodeStyles;
+
+    private final int mMaxDepth;
+
+    private HNRenderPlan(Compiler compiler) {
+        int count = compiler.mOps.size();
+        mOps = new int[count];
+        mArgs = new int[count];
+        mJumps = new int[count];
+        for (int i = 0; i < count; i++) {
+            mOps[i] = compiler.mOps.get(i);
+            mArgs[i] = compiler.mArgs.get(i);
+            mJumps[i] = compiler.mJumps.get(i);
+        }
+
+        mNodes = compiler.mNodes.toArray(new HNDomTree[compiler.mNodes.size()]);
+        mNodeStyles = compiler.mNodeStyles.toArray(new InheritedStyle[compiler.mNodeStyles
+                .size()]);
+        mStyleLists = compiler.mStyleLists.toArray(new StyleList[compiler.mStyleLists.size()]);
+        mMaxDepth = compiler.mMaxDepth;
+    }
+
+    @NonNull
+    static HNRenderPlan compile(@NonNull HNSegment segment) {
+        Compiler compiler = new Compiler(segment);
+        compiler.compile(segment.getDom(), new InheritedStyle(), 0);
+
+        HNLog.d(HNLog.RENDER, "render plan compiled, " + compiler.mOps.size() + " instructions, "
+                + compiler.mStyleLists.size() + " style lists");
+        return new HNRenderPlan(compiler);
+    }
+
+    /**
+     * Run the plan.
+     *
+     * @return the view of root element, to be added to rootView by caller
+     */
+    View execute(@NonNull Context context, @NonNull HNSandBoxContext sandBoxContext, @NonNull
+            HNSegment segment, @NonNull HNRootView rootView, @NonNull LayoutParamsCreator
+            rootCreator) throws HNRenderer.HNRenderException {
+
+        final ViewGroup[] parents = new ViewGroup[mMaxDepth + 1];
+        final StyleHandlers[] parentHandlers = new StyleHandlers[mMaxDepth + 1];
+        int depth = 0;
+        parents[0] = rootView;
+        parentHandlers[0] = StyleHandlerFactory.handlersOf(rootView);
+
+        final ComputedStyle computedStyle = new ComputedStyle();
+
+        View root = null;
+        View view = null;
+        HNDomTree node = null;
+        StyleHandlers handlers = null;
+        LayoutParamsCreator creator = null;
+
+        int pc = 0;
+        while (pc < mOps.length) {
+            switch (mOps[pc]) {
+                case OP_CREATE:
+                    node = mNodes[mArgs[pc]];
+                    creator = depth == 0 ? rootCreator : new LayoutParamsCreator();
+                    view = createView(context, node, segment.getInlineStyles(), creator);
+                    if (view == null) {
+                        HNLog.e(HNLog.RENDER, "error when inflating " + node.getType());
+                        if (depth == 0) {
+                            return null;
+                        }
+                        pc = mJumps[pc];
+                        continue;
+                    }
+
+                    view.setTag(AttachedElement.cloneIfNecessary(node));
+                    handlers = StyleHandlerFactory.handlersOf(view.getClass());
+                    try {
+                        Styles.setDefaultStyle(context, sandBoxContext, view, node,
+                                parents[depth], handlers.getViewHandler(), handlers
+                                        .getExtraHandler(), parentHandlers[depth]
+                                        .getLayoutHandler(), creator);
+                    } catch (AttrApplyException e) {
+                        e.printStackTrace();
+                    }
+                    break;
+
+                case OP_REGISTER_ID:
+                    sandBoxContext.registerId(node.getId(), view);
+                    break;
+
+                case OP_APPLY_STYLES:
+                    StyleList styles = mStyleLists[mArgs[pc]];
+                    boolean textView = view instanceof TextView;
+                    if (textView) {
+                        computedStyle.setTextAppearance(styles.mTextAppearance);
+                    }
+
+                    for (int i = 0; i < styles.mNames.length; i++) {
+                        String name = styles.mNames[i];
+                        try {
+                            Styles.applySingleStyle(context, sandBoxContext, view, node, creator,
+                                    parents[depth], textView && TextAppearance.isTextStyle(name)
+                                            ? null : handlers.getViewHandler(), handlers
+                                            .getExtraHandler(), parentHandlers[depth]
+                                            .getLayoutHandler(), computedStyle, name, styles
+                                            .mValues[i], null);
+                        } catch (AttrApplyException e) {
+                            e.printStackTrace();
+                            HNLog.e(HNLog.RENDER, "wrong when apply " + styles.mNames[i] + " to "
+                                    + node.getType());
+                        }
+                    }
+                    break;
+
+                case OP_COMMIT:
+                    computedStyle.commit(view);
+                    if (HNativeEngine.isPreMeasureText() && view instanceof HNText) {
+                        TextPreMeasurer.preMeasure((HNText) view, creator.width);
+                    }
+
+                    if (depth == 0) {
+                        root = view;
+                    } else {
+                        HNRenderer.addView(parents[depth], view, creator);
+                    }
+                    break;
+
+                case OP_PUSH:
+                    // children of list are the item template, rendered by adapter for each item
+                    if (view instanceof HNListView) {
+                        HNListAdapter.attach((HNListView) view, node, context, sandBoxContext,
+                                segment, rootView, mNodeStyles[mArgs[pc]]);
+                        pc = mJumps[pc] + 1;
+                        continue;
+                    }
+
+                    if (!(view instanceof ViewGroup)) {
+                        HNLog.e(HNLog.RENDER, "View render from HNRenderer is not an viewGroup" +
+                                view.getClass().getSimpleName() + ", but related HNDomTree has " +
+                                "children. Will ignore its children!");
+                        pc = mJumps[pc] + 1;
+                        continue;
+                    }
+
+                    depth++;
+                    parents[depth] = (ViewGroup) view;
+                    parentHandlers[depth] = StyleHandlerFactory.handlersOf(parents[depth]);
+                    break;
+
+                case OP_POP:
+                    parents[depth] = null;
+                    depth--;
+                    break;
+
+                default:
+                    throw new IllegalStateException("unknown instruction " + mOps[pc]);
+            }
+            pc++;
+        }
+
+        return root;
+    }
+
+    private static View createView(Context context, HNDomTree node, AttrsSet attrsSet,
+                                   LayoutParamsCreator creator) throws HNRenderer
+            .HNRenderException {
+        HNRenderer.ViewFactory<?> factory = node.getViewFactory();
+        try {
+            if (factory instanceof ViewFactories.BuiltinFactory) {
+                return HNRenderer.createBuiltinView(context, (ViewFactories.BuiltinFactory<?>)
+                        factory);
+            } else if (HtmlTag.isGroupingElement(node.getType())) {
+                return HNRenderer.createAndroidViewGroup(context, node.getType(), node,
+                        attrsSet, creator);
+            } else {
+                return HNRenderer.createAndroidView(context, node.getType());
+            }
+        } catch (ReflectiveOperationException e) {
+            e.printStackTrace();
+            throw new HNRenderer.HNRenderException("can not create view of " + node.getType());
+        }
+    }
+
+    private static final class Compiler {
+        private final HNSegment mSegment;
+
+        private final List<Integer> mOps = new ArrayList<>();
+        private final List<Integer> mArgs = new ArrayList<>();
+        private final List<Integer> mJumps = new ArrayList<>();
+        private final List<HNDomTree> mNodes = new ArrayList<>();
+        private final List<InheritedStyle> mNodeStyles = new ArrayList<>();
+        private final List<StyleList> mStyleLists = new ArrayList<>();
+        private final Map<StyleList, Integer> mStyleListIndex = new HashMap<>();
+        private int mMaxDepth;
+
+        Compiler(HNSegment segment) {
+            mSegment = segment;
+        }
+
+        void compile(HNDomTree tree, InheritedStyle parentStyle, int depth) {
+            mMaxDepth = Math.max(mMaxDepth, depth);
+
+            int node = mNodes.size();
+            mNodes.add(tree);
+
+            InheritedStyle inheritedStyle = parentStyle.inherit();
+            mNodeStyles.add(tree.isLeaf() ? null : inheritedStyle);
+
+            int create = emit(OP_CREATE, node);
+            if (tree.getId() != null) {
+                emit(OP_REGISTER_ID, node);
+            }
+
+            StyleList styles = resolveStyles(tree, parentStyle, inheritedStyle);
+            if (styles.mNames.length > 0) {
+                emit(OP_APPLY_STYLES, intern(styles));
+            }
+            emit(OP_COMMIT, node);
+
+            if (!tree.isLeaf()) {
+                int push = emit(OP_PUSH, node);
+                for (HNDomTree child : tree.children()) {
+                    compile(child, inheritedStyle, depth + 1);
+                }
+                mJumps.set(push, emit(OP_POP, node));
+            }
+
+            mJumps.set(create, mOps.size());
+        }
+
+        private int emit(int op, int arg) {
+            mOps.add(op);
+            mArgs.add(arg);
+            mJumps.add(-1);
+            return mOps.size() - 1;
+        }
+
+        private int intern(StyleList styles) {
+            Integer index = mStyleListIndex.get(styles);
+            if (index == null) {
+                styles.resolveTextAppearance();
+                index = mStyleLists.size();
+                mStyleLists.add(styles);
+                mStyleListIndex.put(styles, index);
+            }
+            return index;
+        }
+
+        /**
+         * @param outStyle snapshot of tree, the inherit styles declared by tree are put into it
+         */
+        private StyleList resolveStyles(HNDomTree tree, InheritedStyle parentStyle, final
+        InheritedStyle outStyle) {
+            final List<String> names = new ArrayList<>();
+            final List<Object> values = new ArrayList<>();
+
+            StyleConsumer declared = new StyleConsumer() {
+                @Override
+                public void accept(String styleName, Object style) {
+                    names.add(styleName);
+                    values.add(style);
+                    if (InheritStylesRegistry.isInherit(styleName)) {
+                        outStyle.put(styleName, style);
+                    }
+                }
+            };
+
+            try {
+                parentStyle.forEach(new StyleConsumer() {
+                    @Override
+                    public void accept(String styleName, Object style) {
+                        names.add(styleName);
+                        values.add(style);
+                    }
+                });
+
+                StyleSheet styleSheet = mSegment.getStyleSheet();
+                if (styleSheet != null) {
+                    for (StyleSheet linked : styleSheet.getImports()) {
+                        resolveStyleSheet(tree, linked, declared);
+                    }
+                    resolveStyleSheet(tree, styleSheet, declared);
+                }
+
+                mSegment.getInlineStyles().forEach(tree, declared);
+            } catch (AttrApplyException e) {
+                // consumers above never throw
+                e.printStackTrace();
+            }
+
+            return new StyleList(names.toArray(new String[names.size()]), values.toArray());
+        }
+
+        private static void resolveStyleSheet(HNDomTree tree, StyleSheet styleSheet,
+                                              StyleConsumer consumer) throws AttrApplyException {
+            CssSelector[] matchedSelectors = styleSheet.matchedSelector(tree.getType(), tree
+                    .getId(), tree.getClazz());
+            for (CssSelector selector : matchedSelectors) {
+                if (selector != null && selector.matchWhole(tree)) {
+                    styleSheet.forEach(selector, consumer);
+                }
+            }
+        }
+    }
+
+    private static final class StyleList {
+        final String[] mNames;
+        final Object[] mValues;
+
+        /**
+         * text styles of the list, resolved once it is interned
+         */
+        TextAppearance mTextAppearance;
+
+        StyleList(String[] names, Object[] values) {
+            mNames = names;
+            mValues = values;
+        }
+
+        void resolveTextAppearance() {
+            ComputedStyle computedStyle = new ComputedStyle();
+            for (int i = 0; i < mNames.length; i++) {
+                if (mValues[i] != null) {
+                    computedStyle.setTextStyle(mNames[i], mValues[i]);
+                }
+            }
+            mTextAppearance = computedStyle.getTextAppearance();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StyleList)) {
+                return false;
+            }
+            StyleList that = (StyleList) o;
+            return Arrays.equals(mNames, that.mNames) && Arrays.equals(mValues, that.mValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(mNames) + Arrays.hashCode(mValues);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import android.support.annotation.Nullable;
 import android.view.View;
 
 import com.mozz.htmlnative.common.WefRunnable;
+import com.mozz.htmlnative.dom.HierarchyFlattener;
 import com.mozz.htmlnative.exception.HNSyntaxError;
 import com.mozz.htmlnative.utils.MainHandlerUtils;
 
@@ -47,6 +48,11 @@ final class HNRenderThread {
 
                 final HNSegment segment = HNSegment.load(mFileSource);
 
+                // script may walk through the tree, so keep it as it is written
+                if (HNativeEngine.isFlattenHierarchy() && !segment.hasSetScript()) {
+                    HierarchyFlattener.flatten(segment.getDom(), segment.getStyleSheet());
+                }
+
                 HNLog.d(HNLog.PROCESS_THREAD, "DOM: \n" + segment.getDom().wholeTreeToString());
                 HNLog.d(HNLog.PROCESS_THREAD, "HEAD: \n" + segment.getHead().toString());
                 HNLog.d(HNLog.PROCESS_THREAD, "CSS \n" + segment.getStyleSheet().toString());
@@ -54,6 +60,12 @@ final class HNRenderThread {
                     HNLog.d(HNLog.PROCESS_THREAD, "SCRIPT " + segment.getScriptInfo().toString());
                 }
 
+                // script callbacks of view creation must run in main thread
+                if (HNativeEngine.isRenderInBackground() && !segment.hasSetScript() &&
+                        HNRenderer.canRenderOffMainThread(segment.getDom())) {
+                    renderInBackground(context, segment);
+                    return;
+                }
 
                 MainHandlerUtils.instance().postAsynchronous(new Runnable() {
                     @Override
@@ -61,10 +73,14 @@ final class HNRenderThread {
                         mCallback.onHead(segment.getHead());
 
                         View v = null;
-                        try {
-                            v = HNRenderer.get().render(context, segment);
-                        } catch (HNRenderer.HNRenderException e) {
-                            e.printStackTrace();
+                        if (HNativeEngine.isTimeSlicedRender()) {
+                            v = HNSlicedRenderer.render(context, segment);
+                        } else {
+                            try {
+                                v = HNRenderer.get().render(context, segment);
+                            } catch (HNRenderer.HNRenderException e) {
+                                e.printStackTrace();
+                            }
                         }
 
                         mCallback.onViewLoaded(v);
@@ -81,5 +97,33 @@ final class HNRenderThread {
                 });
             }
         }
+
+        /**
+         * Create and style the views in current thread, then attach them in main thread.
+         */
+        private void renderInBackground(@NonNull Context context, @NonNull final HNSegment
+                segment) {
+            MainHandlerUtils.instance().postAsynchronous(new Runnable() {
+                @Override
+                public void run() {
+                    mCallback.onHead(segment.getHead());
+                }
+            });
+
+            View v = null;
+            try {
+                v = HNRenderer.get().render(context, segment);
+            } catch (HNRenderer.HNRenderException e) {
+                e.printStackTrace();
+            }
+
+            final View view = v;
+            MainHandlerUtils.instance().postAsynchronous(new Runnable() {
+                @Override
+                public void run() {
+                    mCallback.onViewLoaded(view);
+                }
+            });
+        }
     }
 }
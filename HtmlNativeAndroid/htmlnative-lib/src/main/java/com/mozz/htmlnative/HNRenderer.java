@@ -3,34 +3,51 @@ package com.mozz.htmlnative;
 import android.content.Context;
 import android.os.SystemClock;
 import android.os.Trace;
-import android.support.annotation.MainThread;
+import android.support.annotation.AnyThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import com.google.android.flexbox.FlexboxLayout;
 
 import com.mozz.htmlnative.css.AttrsSet;
+import com.mozz.htmlnative.css.ComputedStyle;
 import com.mozz.htmlnative.css.InheritStylesRegistry;
+import com.mozz.htmlnative.css.StyleConsumer;
 import com.mozz.htmlnative.css.StyleSheet;
 import com.mozz.htmlnative.css.Styles;
+import com.mozz.htmlnative.css.TextAppearance;
 import com.mozz.htmlnative.css.selector.CssSelector;
 import com.mozz.htmlnative.css.stylehandler.LayoutStyleHandler;
 import com.mozz.htmlnative.css.stylehandler.StyleHandler;
 import com.mozz.htmlnative.css.stylehandler.StyleHandlerFactory;
+import com.mozz.htmlnative.css.stylehandler.StyleHandlers;
 import com.mozz.htmlnative.dom.AttachedElement;
 import com.mozz.htmlnative.dom.DomElement;
 import com.mozz.htmlnative.dom.HNDomTree;
 import com.mozz.htmlnative.exception.AttrApplyException;
+import com.mozz.htmlnative.view.HNDivLayout;
+import com.mozz.htmlnative.view.HNImg;
+import com.mozz.htmlnative.view.HNListView;
 import com.mozz.htmlnative.view.HNRootView;
+import com.mozz.htmlnative.view.HNText;
 import com.mozz.htmlnative.view.LayoutParamsCreator;
+import com.mozz.htmlnative.view.TextPreMeasurer;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.mozz.htmlnative.HNEnvironment.PERFORMANCE_TAG;
 import static com.mozz.htmlnative.ViewTypeRelations.BOX;
@@ -44,24 +61,38 @@ import static com.mozz.htmlnative.css.Styles.ATTR_DISPLAY;
 public final class HNRenderer {
 
     /**
-     * cache the constructor for later use
+     * cache the constructor for later use, views may be created by render thread and main
+     * thread at the same time
      */
-    private static final HashMap<String, Constructor<? extends View>> sConstructorMap = new
-            HashMap<>();
-
-    private static final Map<String, ViewFactory> sViewFactory = new HashMap<>();
+    private static final Map<String, Constructor<? extends View>> sConstructorMap = new
+            ConcurrentHashMap<>();
 
-    private static final Object[] sConstructorArgs = new Object[1];
+    /**
+     * read by render thread when deciding whether a segment can be rendered off main thread,
+     * while factories are registered from main thread
+     */
+    private static final Map<String, ViewFactory> sViewFactory = new ConcurrentHashMap<>();
 
     private static final Class<?>[] sConstructorSignature = new Class[]{Context.class};
 
-    private InheritStyleStack mInheritStyleStack;
-
-    private Tracker mTracker;
+    /**
+     * Views which are safe to be created and styled before attached, out of main thread. Views
+     * like WebView are bound to the thread creating them, so are not listed here.
+     */
+    private static final Set<String> sOffMainThreadViews = new HashSet<>();
+
+    static {
+        sOffMainThreadViews.add(HNDivLayout.class.getName());
+        sOffMainThreadViews.add(HNText.class.getName());
+        sOffMainThreadViews.add(HNImg.class.getName());
+        sOffMainThreadViews.add(TextView.class.getName());
+        sOffMainThreadViews.add(EditText.class.getName());
+        sOffMainThreadViews.add(Button.class.getName());
+        sOffMainThreadViews.add(ScrollView.class.getName());
+        sOffMainThreadViews.add(FlexboxLayout.class.getName());
+    }
 
     private HNRenderer() {
-        mInheritStyleStack = new InheritStyleStack();
-        mTracker = new Tracker();
     }
 
     @NonNull
@@ -69,14 +100,17 @@ public final class HNRenderer {
         return new HNRenderer();
     }
 
-    public static InheritStyleStack computeInheritStyle(View view) {
+    /**
+     * Compute the inherit styles of a view which has been rendered, used as the parent snapshot
+     * when appending child to it.
+     */
+    public static InheritedStyle computeInheritStyle(View view) {
 
         StyleHandler viewStyleHandler = StyleHandlerFactory.get(view);
         StyleHandler extraStyleHandler = StyleHandlerFactory.extraGet(view);
         LayoutStyleHandler parentLayoutAttr = StyleHandlerFactory.parentGet(view);
 
-        InheritStyleStack inheritStyleStack = new InheritStyleStack();
-        inheritStyleStack.push();
+        InheritedStyle inheritedStyle = new InheritedStyle();
 
         Iterator<String> itr = InheritStylesRegistry.iterator();
 
@@ -86,20 +120,26 @@ public final class HNRenderer {
             Object val = Styles.getStyle(view, params, viewStyleHandler, extraStyleHandler,
                     parentLayoutAttr);
             if (val != null) {
-                inheritStyleStack.newStyle(params, val);
+                inheritedStyle.put(params, val);
             }
         }
 
-        return inheritStyleStack;
+        return inheritedStyle;
     }
 
-    @MainThread
+    /**
+     * Build the view tree of segment. It runs on main thread by default, or on a background
+     * Looper thread if segment has no script and {@link #canRenderOffMainThread(HNDomTree)}, in
+     * which case the returned view must be attached on main thread.
+     */
+    @AnyThread
     final View render(@NonNull Context context, @NonNull HNSegment segment) throws
             HNRenderException {
 
         Trace.beginSection("NHRenderer render start");
 
-        mTracker.reset();
+        // renders in main thread and render thread may run at the same time
+        Tracker tracker = new Tracker();
 
         HNLog.d(HNLog.RENDER, "start to render " + segment.toString());
         HNRootView rootViewGroup = new HNRootView(context);
@@ -107,31 +147,43 @@ public final class HNRenderer {
         HNSandBoxContext sandBoxContext = HNSandBoxContextImpl.createContext(rootViewGroup,
                 segment, context);
 
-
-        mInheritStyleStack.reset();
-
         LayoutParamsCreator rootCreator = new LayoutParamsCreator();
 
         long renderStartTime = SystemClock.currentThreadTimeMillis();
-        View v = renderInternal(context, sandBoxContext, segment.getDom(), segment,
-                rootViewGroup, rootCreator, rootViewGroup, segment.getStyleSheet());
+        View v;
+        if (HNativeEngine.isLazyRender() && !segment.hasSetScript()) {
+            v = HNLazyRenderer.render(context, sandBoxContext, segment, rootViewGroup,
+                    rootCreator);
+        } else if (HNativeEngine.isCompileRenderPlan()) {
+            long compileStartTime = SystemClock.currentThreadTimeMillis();
+            HNRenderPlan plan = segment.getRenderPlan();
+            tracker.record("Compile Render Plan", SystemClock.currentThreadTimeMillis() -
+                    compileStartTime);
+
+            renderStartTime = SystemClock.currentThreadTimeMillis();
+            v = plan.execute(context, sandBoxContext, segment, rootViewGroup, rootCreator);
+        } else {
+            v = renderInternal(context, sandBoxContext, segment.getDom(), segment,
+                    rootViewGroup, StyleHandlerFactory.handlersOf(rootViewGroup), rootCreator,
+                    rootViewGroup, segment.getStyleSheet(), new InheritedStyle());
+        }
 
 
         if (v != null) {
             rootViewGroup.addContent(v, LayoutParamsCreator.createLayoutParams(rootViewGroup,
                     rootCreator));
-            mTracker.record("Render View", SystemClock.currentThreadTimeMillis() - renderStartTime);
+            tracker.record("Render View", SystemClock.currentThreadTimeMillis() - renderStartTime);
 
             long createTime = SystemClock.currentThreadTimeMillis();
             this.performCreate(sandBoxContext);
-            mTracker.record("Create View", SystemClock.currentThreadTimeMillis() - createTime);
+            tracker.record("Create View", SystemClock.currentThreadTimeMillis() - createTime);
 
             long afterCreate = SystemClock.currentThreadTimeMillis();
             this.performCreated(sandBoxContext);
-            mTracker.record("After View Created", SystemClock.currentThreadTimeMillis() -
+            tracker.record("After View Created", SystemClock.currentThreadTimeMillis() -
                     afterCreate);
 
-            Log.i(PERFORMANCE_TAG, mTracker.dump());
+            Log.i(PERFORMANCE_TAG, tracker.dump());
 
             HNLog.d(HNLog.RENDER, sandBoxContext.allIdTag());
             Trace.endSection();
@@ -142,31 +194,79 @@ public final class HNRenderer {
         return null;
     }
 
-    private View renderInternal(@NonNull Context context, @NonNull HNSandBoxContext
+    /**
+     * @return true if all the views of tree can be created out of main thread, see
+     * {@link #sOffMainThreadViews}
+     */
+    static boolean canRenderOffMainThread(@NonNull HNDomTree tree) {
+        String type = tree.getType();
+        if (type != null && !HtmlTag.isGroupingElement(type)) {
+            String viewClassName = ViewTypeRelations.findClassByType(type);
+            if (viewClassName == null || !sOffMainThreadViews.contains(viewClassName) ||
+                    sViewFactory.containsKey(viewClassName)) {
+                return false;
+            }
+        }
+
+        for (HNDomTree child : tree.children()) {
+            if (!canRenderOffMainThread(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static View renderInternal(@NonNull Context context, @NonNull HNSandBoxContext
             sandBoxContext, HNDomTree dom, HNSegment segment, @NonNull ViewGroup parent, @NonNull
-            LayoutParamsCreator paramsCreator, @NonNull HNRootView root, StyleSheet styleSheet)
-            throws HNRenderException {
+            StyleHandlers parentHandlers, @NonNull LayoutParamsCreator paramsCreator, @NonNull
+            HNRootView root, StyleSheet styleSheet, @NonNull InheritedStyle parentStyle) throws
+            HNRenderException {
+        return renderInternal(context, sandBoxContext, dom, segment, parent, parentHandlers,
+                paramsCreator, root, styleSheet, parentStyle, false);
+    }
+
+    /**
+     * @param itemTemplate whether dom is the item template of a list, see
+     *                     {@link #createView(AttrsSet.AttrsOwner, DomElement, HNSandBoxContext,
+     *                     ViewGroup, StyleHandlers, Context, AttrsSet, LayoutParamsCreator,
+     *                     StyleSheet, InheritedStyle, boolean)}
+     */
+    static View renderInternal(@NonNull Context context, @NonNull HNSandBoxContext
+            sandBoxContext, HNDomTree dom, HNSegment segment, @NonNull ViewGroup parent, @NonNull
+            StyleHandlers parentHandlers, @NonNull LayoutParamsCreator paramsCreator, @NonNull
+            HNRootView root, StyleSheet styleSheet, @NonNull InheritedStyle parentStyle, boolean
+            itemTemplate) throws HNRenderException {
 
         AttrsSet attrsSet = segment.getInlineStyles();
 
+        // snapshot of this node, shares the parent one until this node declares inherit style.
+        InheritedStyle inheritedStyle = parentStyle.inherit();
+
         if (dom.isLeaf()) {
-            View v = createView(dom, dom, sandBoxContext, parent, context, attrsSet,
-                    paramsCreator, styleSheet, mInheritStyleStack);
-            mInheritStyleStack.pop();
-            return v;
+            return createView(dom, dom, sandBoxContext, parent, parentHandlers, context,
+                    attrsSet, paramsCreator, styleSheet, inheritedStyle, itemTemplate);
         } else {
-            View view = createView(dom, dom, sandBoxContext, parent, context, attrsSet,
-                    paramsCreator, styleSheet, mInheritStyleStack);
+            View view = createView(dom, dom, sandBoxContext, parent, parentHandlers, context,
+                    attrsSet, paramsCreator, styleSheet, inheritedStyle, itemTemplate);
 
             if (view == null) {
                 return null;
             }
 
+            // children of list are the item template, rendered by adapter for each item
+            if (view instanceof HNListView) {
+                HNListAdapter.attach((HNListView) view, dom, context, sandBoxContext, segment,
+                        root, inheritedStyle);
+                return view;
+            }
 
             if (view instanceof ViewGroup) {
 
                 final ViewGroup viewGroup = (ViewGroup) view;
 
+                // resolved once, shared by all the children
+                final StyleHandlers handlers = StyleHandlerFactory.handlersOf(viewGroup);
+
                 List<HNDomTree> children = dom.children();
                 for (HNDomTree child : children) {
 
@@ -174,7 +274,8 @@ public final class HNRenderer {
 
                     // Recursively render child.
                     final View v = renderInternal(context, sandBoxContext, child, segment,
-                            viewGroup, childCreator, root, styleSheet);
+                            viewGroup, handlers, childCreator, root, styleSheet, inheritedStyle,
+                            itemTemplate);
 
                     if (v != null) {
                         addView(viewGroup, v, childCreator);
@@ -188,28 +289,59 @@ public final class HNRenderer {
                         "children" + ". Will ignore its children!");
             }
 
-            mInheritStyleStack.pop();
             return view;
         }
     }
 
 
-    public static View createView(AttrsSet.AttrsOwner owner, @NonNull DomElement element,
-                                  @NonNull HNSandBoxContext sandBoxContext, ViewGroup parent,
-                                  @NonNull Context context, AttrsSet attrsSet, @NonNull
-                                          LayoutParamsCreator layoutCreator, StyleSheet
-                                          styleSheet, InheritStyleStack stack) throws
+    public static View createView(AttrsSet.AttrsOwner owner, @NonNull final DomElement element,
+                                  @NonNull final HNSandBoxContext sandBoxContext, final
+                                  ViewGroup parent, @NonNull final Context context, AttrsSet
+                                          attrsSet, @NonNull final LayoutParamsCreator
+                                          layoutCreator, StyleSheet styleSheet,
+                                  InheritedStyle inheritedStyle) throws HNRenderException {
+        return createView(owner, element, sandBoxContext, parent, StyleHandlerFactory
+                .handlersOf(parent), context, attrsSet, layoutCreator, styleSheet,
+                inheritedStyle);
+    }
+
+    /**
+     * @param parentHandlers {@link StyleHandlers} of parent, resolved by caller once for all
+     *                       the children of parent
+     */
+    static View createView(AttrsSet.AttrsOwner owner, @NonNull final DomElement element,
+                           @NonNull final HNSandBoxContext sandBoxContext, final ViewGroup
+                                   parent, @NonNull StyleHandlers parentHandlers, @NonNull final
+                           Context context, AttrsSet attrsSet, @NonNull final
+                           LayoutParamsCreator layoutCreator, StyleSheet styleSheet,
+                           InheritedStyle inheritedStyle) throws HNRenderException {
+        return createView(owner, element, sandBoxContext, parent, parentHandlers, context,
+                attrsSet, layoutCreator, styleSheet, inheritedStyle, false);
+    }
+
+    /**
+     * @param itemTemplate whether element is in the item template of a list. The views are
+     *                     rendered once for each holder, so ids are not registered, and the
+     *                     {@code {{key}}} styles are left to {@link HNListAdapter} to bind.
+     */
+    static View createView(AttrsSet.AttrsOwner owner, @NonNull final DomElement element,
+                           @NonNull final HNSandBoxContext sandBoxContext, final ViewGroup
+                                   parent, @NonNull StyleHandlers parentHandlers, @NonNull final
+                           Context context, AttrsSet attrsSet, @NonNull final
+                           LayoutParamsCreator layoutCreator, StyleSheet styleSheet,
+                           final InheritedStyle inheritedStyle, boolean itemTemplate) throws
             HNRenderException {
 
         String type = element.getType();
 
-        if (stack != null) {
-            stack.push();
-        }
-
         try {
             View v;
-            if (HtmlTag.isGroupingElement(type)) {
+            HNRenderer.ViewFactory<?> factory = element instanceof HNDomTree ? ((HNDomTree)
+                    element).getViewFactory() : null;
+            if (factory instanceof ViewFactories.BuiltinFactory) {
+                // resolved when parsing
+                v = createBuiltinView(context, (ViewFactories.BuiltinFactory<?>) factory);
+            } else if (HtmlTag.isGroupingElement(type)) {
                 v = createAndroidViewGroup(context, type, owner, attrsSet, layoutCreator);
             } else {
                 v = createAndroidView(context, type);
@@ -228,17 +360,18 @@ public final class HNRenderer {
 
             // save the id if element has one
             String id = element.getId();
-            if (id != null) {
+            if (id != null && !itemTemplate) {
                 sandBoxContext.registerId(id, v);
             }
 
             // ------- below starts the styleSheet process part -------
 
-            // 1 - find the related StyleHandler
-
-            StyleHandler viewStyleHandler = StyleHandlerFactory.get(v);
-            StyleHandler extraStyleHandler = StyleHandlerFactory.extraGet(v);
-            LayoutStyleHandler parentLayoutAttr = StyleHandlerFactory.parentGet(v);
+            // 1 - find the related StyleHandler, v is not attached to parent yet, so the parent
+            // one comes from parentHandlers
+            final StyleHandlers handlers = StyleHandlerFactory.handlersOf(v.getClass());
+            final StyleHandler viewStyleHandler = handlers.getViewHandler();
+            final StyleHandler extraStyleHandler = handlers.getExtraHandler();
+            final LayoutStyleHandler parentLayoutAttr = parentHandlers.getLayoutHandler();
 
             // 2 - set initial style to an view
             try {
@@ -248,62 +381,98 @@ public final class HNRenderer {
                 e.printStackTrace();
             }
 
+            // styles like padding and text are resolved here, and committed to view at once
+            // after step 5
+            final ComputedStyle computedStyle = new ComputedStyle();
+
             // 3 - use parent inherit style
             try {
                 /*
-                 * First apply the parent styleSheet style to it.
+                 * First apply the parent styleSheet style to it. The snapshot holds one value
+                 * for each inherit style, so each of them is applied only once.
                  */
-                if (stack != null) {
-                    for (Styles.StyleEntry entry : stack) {
-
-                        // here pass InheritStyleStack null to Styles, is to prevent Style being
-                        // stored in InheritStyleStack twice
-                        Styles.applySingleStyle(context, sandBoxContext, v, element,
-                                layoutCreator, parent, viewStyleHandler, extraStyleHandler,
-                                parentLayoutAttr, entry, null);
+                if (inheritedStyle != null) {
+                    final View view = v;
 
+                    // text styles are resolved once by the snapshot, and shared by the subtree
+                    final boolean textView = v instanceof TextView;
+                    if (textView) {
+                        computedStyle.setTextAppearance(inheritedStyle.getTextAppearance());
                     }
+
+                    inheritedStyle.forEach(new StyleConsumer() {
+                        @Override
+                        public void accept(String styleName, Object style) throws
+                                AttrApplyException {
+                            // here pass InheritedStyle null to Styles, as the style is already
+                            // in the snapshot
+                            Styles.applySingleStyle(context, sandBoxContext, view, element,
+                                    layoutCreator, parent, textView && TextAppearance
+                                            .isTextStyle(styleName) ? null : viewStyleHandler,
+                                    extraStyleHandler, parentLayoutAttr, computedStyle,
+                                    styleName, style, null);
+                        }
+                    });
                 }
             } catch (AttrApplyException e) {
                 e.printStackTrace();
                 HNLog.e(HNLog.RENDER, "wrong when apply inherit attr to " + type);
             }
 
-            // 4 - use CSS to render
+            // 4 - use CSS to render, linked StyleSheets first, then the segment's own one
             if (styleSheet != null) {
-                CssSelector[] matchedSelectors = styleSheet.matchedSelector(type, element.getId()
-                        , element.getClazz());
-
-                for (CssSelector selector : matchedSelectors) {
-                    if (selector != null) {
-                        if (selector.matchWhole(element)) {
-
-                            try {
-                                Styles.applyStyles(context, sandBoxContext, styleSheet, v,
-                                        selector, element, parent, layoutCreator,
-                                        viewStyleHandler, extraStyleHandler, parentLayoutAttr,
-                                        stack);
-
-                            } catch (AttrApplyException e) {
-                                e.printStackTrace();
-                                HNLog.e(HNLog.RENDER, "Wrong when apply css style to " + type);
-                            }
-                        }
-                    }
+                for (StyleSheet linked : styleSheet.getImports()) {
+                    applyStyleSheet(context, sandBoxContext, v, element, parent, layoutCreator,
+                            linked, viewStyleHandler, extraStyleHandler, parentLayoutAttr,
+                            computedStyle, inheritedStyle);
                 }
+
+                applyStyleSheet(context, sandBoxContext, v, element, parent, layoutCreator,
+                        styleSheet, viewStyleHandler, extraStyleHandler, parentLayoutAttr,
+                        computedStyle, inheritedStyle);
             }
 
             // 5 - use inline-style to render
             try {
-                if (attrsSet != null) {
+                if (attrsSet != null && itemTemplate) {
+                    final View view = v;
+                    final boolean textView = v instanceof TextView;
+                    if (textView) {
+                        // a binding can not be parsed, so it is not in the appearance
+                        computedStyle.setTextAppearance(attrsSet.getTextAppearance(owner));
+                    }
+
+                    attrsSet.forEach(owner, new StyleConsumer() {
+                        @Override
+                        public void accept(String styleName, Object style) throws
+                                AttrApplyException {
+                            if (!HNListAdapter.isBinding(style)) {
+                                Styles.applySingleStyle(context, sandBoxContext, view, element,
+                                        layoutCreator, parent, textView && TextAppearance
+                                                .isTextStyle(styleName) ? null :
+                                                viewStyleHandler, extraStyleHandler,
+                                        parentLayoutAttr, computedStyle, styleName, style,
+                                        inheritedStyle);
+                            }
+                        }
+                    });
+                } else if (attrsSet != null) {
                     Styles.applyStyles(context, sandBoxContext, attrsSet, v, owner, element,
                             parent, layoutCreator, viewStyleHandler, extraStyleHandler,
-                            parentLayoutAttr, stack);
+                            parentLayoutAttr, computedStyle, inheritedStyle);
                 }
             } catch (AttrApplyException e) {
                 e.printStackTrace();
                 HNLog.e(HNLog.RENDER, "wrong when apply inline attr to " + type);
             }
+
+            // 6 - commit the resolved styles to view
+            computedStyle.commit(v);
+
+            // 7 - styles of text are final now, warm up its measurement off the UI thread
+            if (HNativeEngine.isPreMeasureText() && v instanceof HNText) {
+                TextPreMeasurer.preMeasure((HNText) v, layoutCreator.width);
+            }
             return v;
 
         } catch (ClassNotFoundException e) {
@@ -324,6 +493,35 @@ public final class HNRenderer {
         }
     }
 
+    private static void applyStyleSheet(@NonNull Context context, @NonNull HNSandBoxContext
+            sandBoxContext, View v, @NonNull DomElement element, ViewGroup parent, @NonNull
+            LayoutParamsCreator layoutCreator, @NonNull StyleSheet styleSheet, StyleHandler
+            viewStyleHandler, StyleHandler extraStyleHandler, LayoutStyleHandler parentLayoutAttr,
+                                        ComputedStyle computedStyle, InheritedStyle
+                                                inheritedStyle) {
+        CssSelector[] matchedSelectors = styleSheet.matchedSelector(element.getType(), element
+                .getId(), element.getClazz());
+
+        for (CssSelector selector : matchedSelectors) {
+            if (selector != null) {
+                if (selector.matchWhole(element)) {
+
+                    try {
+                        Styles.applyStyles(context, sandBoxContext, styleSheet, v, selector,
+                                element, parent, layoutCreator, viewStyleHandler,
+                                extraStyleHandler, parentLayoutAttr, computedStyle,
+                                inheritedStyle);
+
+                    } catch (AttrApplyException e) {
+                        e.printStackTrace();
+                        HNLog.e(HNLog.RENDER, "Wrong when apply css style to " + element
+                                .getType());
+                    }
+                }
+            }
+        }
+    }
+
     @Nullable
     static View createAndroidView(@NonNull Context context, @Nullable String typeName) throws
             ClassNotFoundException, NoSuchMethodException, IllegalAccessException,
@@ -336,6 +534,11 @@ public final class HNRenderer {
 
         HNLog.d(HNLog.RENDER, "createContext view" + viewClassName + " with type" + typeName);
 
+        ViewFactories.BuiltinFactory<?> builtinFactory = ViewFactories.get(viewClassName);
+        if (builtinFactory != null) {
+            return createBuiltinView(context, builtinFactory);
+        }
+
         // first let viewFactory to hook the create process
         View view = createViewByViewFactory(context, viewClassName);
         if (view != null) {
@@ -352,11 +555,39 @@ public final class HNRenderer {
             sConstructorMap.put(viewClassName, constructor);
         }
 
-        sConstructorArgs[0] = context;
-        view = constructor.newInstance(sConstructorArgs);
-        // release the context
-        sConstructorArgs[0] = null;
-        return view;
+        // reuse the one released by a closed page if there is
+        if (HNativeEngine.getViewPoolSize() > 0) {
+            View pooled = HNViewPool.acquire(context, constructor.getDeclaringClass());
+            if (pooled != null) {
+                return pooled;
+            }
+            return constructor.newInstance(HNViewPool.contextFor(context, constructor
+                    .getDeclaringClass()));
+        }
+
+        return constructor.newInstance(context);
+    }
+
+    /**
+     * Create the built-in view directly, unless a {@link ViewFactory} is registered for it.
+     */
+    static View createBuiltinView(@NonNull Context context, @NonNull ViewFactories
+            .BuiltinFactory<?> factory) {
+        View view = createViewByViewFactory(context, factory.getClassName());
+        if (view != null) {
+            return view;
+        }
+
+        // reuse the one released by a closed page if there is
+        if (HNativeEngine.getViewPoolSize() > 0) {
+            View pooled = HNViewPool.acquire(context, factory.getViewClass());
+            if (pooled != null) {
+                return pooled;
+            }
+            return factory.create(HNViewPool.contextFor(context, factory.getViewClass()));
+        }
+
+        return factory.create(context);
     }
 
     static View createAndroidViewGroup(@NonNull Context context, @Nullable String typeName,
@@ -369,60 +600,70 @@ public final class HNRenderer {
         layoutParamsCreator.width = ViewGroup.LayoutParams.MATCH_PARENT;
         layoutParamsCreator.width = ViewGroup.LayoutParams.WRAP_CONTENT;
 
+        return createAndroidView(context, groupingViewType(owner, attrsSet));
+    }
+
+    /**
+     * @return the view type of grouping element, decided by its display.
+     */
+    static String groupingViewType(AttrsSet.AttrsOwner owner, AttrsSet attrsSet) {
         if (attrsSet != null) {
             Object displayObj = attrsSet.getStyle(owner, ATTR_DISPLAY);
             if (displayObj != null && displayObj instanceof String) {
                 String display = (String) displayObj;
                 switch (display) {
                     case Styles.VAL_DISPLAY_FLEX:
-                        return createAndroidView(context, FLEX_BOX);
+                        return FLEX_BOX;
                     case Styles.VAL_DISPLAY_ABSOLUTE:
-                        return createAndroidView(context, BOX);
+                        return BOX;
 
                     case Styles.VAL_DISPLAY_BOX:
                     default:
-                        return createAndroidView(context, LINEAR_BOX);
+                        return LINEAR_BOX;
                 }
             }
         }
 
-        return createAndroidView(context, LINEAR_BOX);
+        return LINEAR_BOX;
     }
 
     public static void renderStyle(Context context, final HNSandBoxContext sandBoxContext, View
             v, DomElement domElement, @NonNull LayoutParamsCreator layoutCreator, @NonNull
-            ViewGroup parent, String styleName, Object style, boolean isParent, InheritStyleStack
-            stack) throws AttrApplyException {
+            ViewGroup parent, String styleName, Object style, boolean isParent, InheritedStyle
+            outStyle) throws AttrApplyException {
 
         StyleHandler viewStyleHandler = StyleHandlerFactory.get(v);
         StyleHandler extraStyleHandler = StyleHandlerFactory.extraGet(v);
         LayoutStyleHandler parentLayoutAttr = StyleHandlerFactory.parentGet(v);
 
         Styles.applySingleStyle(context, sandBoxContext, v, domElement, layoutCreator, parent,
-                viewStyleHandler, extraStyleHandler, parentLayoutAttr, styleName, style, stack);
+                viewStyleHandler, extraStyleHandler, parentLayoutAttr, styleName, style, outStyle);
     }
 
     public static void renderStyle(Context context, @NonNull final HNSandBoxContext
             sandBoxContext, @NonNull View v, DomElement domElement, @NonNull LayoutParamsCreator
             layoutCreator, ViewGroup parent, @NonNull Map<String, Object> styles,
-                                   InheritStyleStack stack) throws AttrApplyException {
+                                   InheritedStyle outStyle) throws AttrApplyException {
 
         final StyleHandler viewStyleHandler = StyleHandlerFactory.get(v);
         final StyleHandler extraStyleHandler = StyleHandlerFactory.extraGet(v);
         final LayoutStyleHandler parentAttr = StyleHandlerFactory.parentGet(v);
+        final ComputedStyle computedStyle = new ComputedStyle();
 
         for (Map.Entry<String, Object> entry : styles.entrySet()) {
 
             try {
                 Styles.applySingleStyle(v.getContext(), sandBoxContext, v, domElement,
                         layoutCreator, parent, viewStyleHandler, extraStyleHandler, parentAttr,
-                        entry.getKey(), entry.getValue(), stack);
+                        computedStyle, entry.getKey(), entry.getValue(), outStyle);
 
 
             } catch (AttrApplyException e) {
                 e.printStackTrace();
             }
         }
+
+        computedStyle.commit(v);
     }
 
     public static void addView(ViewGroup parent, View v, LayoutParamsCreator creator) {
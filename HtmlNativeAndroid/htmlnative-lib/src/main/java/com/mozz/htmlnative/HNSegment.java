@@ -25,6 +25,11 @@ public final class HNSegment {
     private AttrsSet mInlineStyles;
     private StyleSheet mStyleSheet;
 
+    /**
+     * compiled at the first render, see {@link #getRenderPlan()}
+     */
+    private volatile HNRenderPlan mRenderPlan;
+
     @NonNull
     private static Map<String, HNSegment> sCache = new ArrayMap<>();
     private static final Object sCacheLock = new Object();
@@ -39,7 +44,9 @@ public final class HNSegment {
     @NonNull
     public static HNSegment load(@NonNull InputStream stream) throws HNSyntaxError {
         Parser parser = new Parser(new FileTextReader(stream));
-        return parser.process();
+        HNSegment segment = parser.process();
+        ViewFactories.resolve(segment.getDom(), segment.getInlineStyles());
+        return segment;
     }
 
     //TODO finish the cache of HNSegment
@@ -107,4 +114,18 @@ public final class HNSegment {
     public boolean hasSetScript() {
         return mHasScriptEmbed;
     }
+
+    /**
+     * @return the render plan of this segment, compiled at the first call. Segments rendered
+     * concurrently may compile it more than once, which does no harm.
+     */
+    @NonNull
+    HNRenderPlan getRenderPlan() {
+        HNRenderPlan plan = mRenderPlan;
+        if (plan == null) {
+            plan = HNRenderPlan.compile(this);
+            mRenderPlan = plan;
+        }
+        return plan;
+    }
 }
@@ -0,0 +1,207 @@
+package com.mozz.htmlnative;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.mozz.htmlnative.css.stylehandler.StyleHandlerFactory;
+import com.mozz.htmlnative.css.stylehandler.StyleHandlers;
+import com.mozz.htmlnative.dom.HNDomTree;
+import com.mozz.htmlnative.view.HNListView;
+import com.mozz.htmlnative.view.HNRootView;
+import com.mozz.htmlnative.view.LayoutParamsCreator;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.ListIterator;
+
+import static com.mozz.htmlnative.HNEnvironment.PERFORMANCE_TAG;
+
+/**
+ * Render the segment in slices, each slice renders nodes until the frame budget is used up, then
+ * it waits for the next frame via {@link Choreographer}, so that main thread is never blocked
+ * for long.
+ * <p>
+ * Nodes are rendered in document order and attached at once, so the content on top is shown
+ * first, while the rest is still being rendered. Rendering pauses while the root view is
+ * detached from window, and goes on once it is attached again.
+ *
+ * @author Yang Tao, 17/8/2.
+ */
+
+final class HNSlicedRenderer implements Choreographer.FrameCallback,
+        View.OnAttachStateChangeListener {
+
+    /**
+     * half of a 60fps frame, the rest is left for measure, layout and draw.
+     */
+    private static final long FRAME_BUDGET_NANOS = 8 * 1000 * 1000L;
+
+    /**
+     * count of nodes rendered between two checks of the time.
+     */
+    private static final int NODES_PER_CHECK = 4;
+
+    private final Context mContext;
+    private final HNSegment mSegment;
+    private final HNRootView mRootView;
+    private final HNSandBoxContext mSandBoxContext;
+
+    private final ArrayDeque<PendingNode> mPending = new ArrayDeque<>();
+
+    private long mStartTime;
+    private int mSliceCount;
+
+    private HNSlicedRenderer(Context context, HNSegment segment) {
+        mContext = context;
+        mSegment = segment;
+        mRootView = new HNRootView(context);
+        mSandBoxContext = HNSandBoxContextImpl.createContext(mRootView, segment, context);
+    }
+
+    /**
+     * Render the first slice of segment at once, the rest will be rendered in following frames.
+     *
+     * @return the root view, which can be attached at once.
+     */
+    @MainThread
+    static View render(@NonNull Context context, @NonNull HNSegment segment) {
+        HNSlicedRenderer renderer = new HNSlicedRenderer(context, segment);
+        renderer.mStartTime = SystemClock.uptimeMillis();
+        renderer.mPending.add(new PendingNode(segment.getDom(), renderer.mRootView,
+                StyleHandlerFactory.handlersOf(renderer.mRootView), new InheritedStyle()));
+        renderer.mRootView.addOnAttachStateChangeListener(renderer);
+        renderer.renderSlice();
+        return renderer.mRootView;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        renderSlice();
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View v) {
+        // the first slices are posted before the root view is attached, so never post twice
+        Choreographer.getInstance().removeFrameCallback(this);
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+        // the host is gone, or it has removed the view, so neither render the rest nor call
+        // onViewCreate and onViewLoaded of the script until it is attached again.
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    private void renderSlice() {
+        mSliceCount++;
+        long deadline = System.nanoTime() + FRAME_BUDGET_NANOS;
+
+        while (!mPending.isEmpty()) {
+            for (int i = 0; i < NODES_PER_CHECK && !mPending.isEmpty(); i++) {
+                renderNode(mPending.pollFirst());
+            }
+
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+        }
+
+        if (mPending.isEmpty()) {
+            onFinish();
+        } else {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private void renderNode(PendingNode node) {
+        HNDomTree dom = node.mDom;
+
+        // snapshot of this node, shares the parent one until this node declares inherit style.
+        InheritedStyle inheritedStyle = node.mParentStyle.inherit();
+        LayoutParamsCreator creator = new LayoutParamsCreator();
+
+        View view;
+        try {
+            view = HNRenderer.createView(dom, dom, mSandBoxContext, node.mParent, node
+                    .mParentHandlers, mContext, mSegment.getInlineStyles(), creator, mSegment
+                    .getStyleSheet(), inheritedStyle);
+        } catch (HNRenderer.HNRenderException e) {
+            e.printStackTrace();
+            view = null;
+        }
+
+        if (view == null) {
+            HNLog.e(HNLog.RENDER, "error when inflating " + dom.getType());
+            return;
+        }
+
+        if (node.mParent == mRootView) {
+            mRootView.addContent(view, LayoutParamsCreator.createLayoutParams(mRootView,
+                    creator));
+        } else {
+            HNRenderer.addView(node.mParent, view, creator);
+        }
+
+        if (dom.isLeaf()) {
+            return;
+        }
+
+        if (view instanceof HNListView) {
+            HNListAdapter.attach((HNListView) view, dom, mContext, mSandBoxContext, mSegment,
+                    mRootView, inheritedStyle);
+            return;
+        }
+
+        if (!(view instanceof ViewGroup)) {
+            HNLog.e(HNLog.RENDER, "View render from HNSlicedRenderer is not an viewGroup " + view
+                    .getClass().getSimpleName() + ", but related HNDomTree has children. Will " +
+                    "ignore its children!");
+            return;
+        }
+
+        ViewGroup viewGroup = (ViewGroup) view;
+
+        // resolved once, shared by all the children
+        StyleHandlers handlers = StyleHandlerFactory.handlersOf(viewGroup);
+
+        // children go to the front in reversed order, so they are rendered next in order.
+        List<HNDomTree> children = dom.children();
+        ListIterator<HNDomTree> itr = children.listIterator(children.size());
+        while (itr.hasPrevious()) {
+            mPending.addFirst(new PendingNode(itr.previous(), viewGroup, handlers,
+                    inheritedStyle));
+        }
+    }
+
+    private void onFinish() {
+        mRootView.removeOnAttachStateChangeListener(this);
+        mSandBoxContext.onViewCreate();
+        mSandBoxContext.onViewLoaded();
+
+        Log.i(PERFORMANCE_TAG, "Render View in " + mSliceCount + " slices : " + (SystemClock
+                .uptimeMillis() - mStartTime) + "ms");
+        HNLog.d(HNLog.RENDER, mSandBoxContext.allIdTag());
+    }
+
+    private static final class PendingNode {
+        final HNDomTree mDom;
+        final ViewGroup mParent;
+        final StyleHandlers mParentHandlers;
+        final InheritedStyle mParentStyle;
+
+        PendingNode(HNDomTree dom, ViewGroup parent, StyleHandlers parentHandlers,
+                    InheritedStyle parentStyle) {
+            mDom = dom;
+            mParent = parent;
+            mParentHandlers = parentHandlers;
+            mParentStyle = parentStyle;
+        }
+    }
+}
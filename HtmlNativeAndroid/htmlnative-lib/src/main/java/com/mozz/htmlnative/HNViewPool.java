@@ -0,0 +1,201 @@
+package com.mozz.htmlnative;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.content.res.Configuration;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.widget.TextView;
+
+import com.mozz.htmlnative.view.IRecyclableView;
+import com.mozz.htmlnative.view.TextViewDefaults;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of the views released by {@link HNativeEngine#recycleView(View)}, keyed by view class,
+ * so that the following renders reuse them instead of allocating new ones.
+ * <p>
+ * Only {@link IRecyclableView} and plain TextView are pooled, and they are reset when released.
+ * They are created with a {@link MutableContextWrapper} by {@link #contextFor(Context, Class)},
+ * whose base is switched to the application Context when released, so the pool never keeps a
+ * closed Activity, and switched to the Context of the new page when acquired, so views are
+ * reused across Activities. The pool is cleared when memory runs low.
+ *
+ * @author Yang Tao, 17/8/5.
+ */
+
+final class HNViewPool {
+
+    private static final Map<Class<? extends View>, ArrayDeque<View>> sPool = new HashMap<>();
+
+    /**
+     * defaults of TextView depend on the theme, so they are kept for each Context
+     */
+    private static final Map<Context, TextViewDefaults> sTextViewDefaults = new WeakHashMap<>();
+
+    private static final ComponentCallbacks2 sTrimCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                clear();
+            } else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+                trimToHalf();
+            }
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+
+        }
+
+        @Override
+        public void onLowMemory() {
+            clear();
+        }
+    };
+
+    private HNViewPool() {
+
+    }
+
+    static ComponentCallbacks2 trimCallbacks() {
+        return sTrimCallbacks;
+    }
+
+    /**
+     * @return the Context to create a view of clazz with, so that it can be pooled later
+     */
+    static Context contextFor(@NonNull Context context, @NonNull Class<? extends View> clazz) {
+        return isPoolable(clazz) ? new MutableContextWrapper(context) : context;
+    }
+
+    private static boolean isPoolable(Class<? extends View> clazz) {
+        return IRecyclableView.class.isAssignableFrom(clazz) || clazz == TextView.class;
+    }
+
+    /**
+     * @return a released view of clazz, moved to context, or null if there is none.
+     */
+    @Nullable
+    static View acquire(@NonNull Context context, @NonNull Class<? extends View> clazz) {
+        View view;
+        synchronized (sPool) {
+            ArrayDeque<View> views = sPool.get(clazz);
+            view = views != null ? views.pollFirst() : null;
+        }
+        if (view == null) {
+            return null;
+        }
+
+        ((MutableContextWrapper) view.getContext()).setBaseContext(context);
+        // defaults of TextView depend on the theme of new Context
+        if (view instanceof TextView) {
+            textViewDefaults(context).restore((TextView) view);
+        }
+        return view;
+    }
+
+    /**
+     * Detach view, and put it with all its descendants into the pool.
+     *
+     * @param maxPerClass max count of the views kept for each class
+     */
+    static void release(@NonNull View view, int maxPerClass) {
+        ViewParent parent = view.getParent();
+        if (parent instanceof ViewGroup) {
+            ((ViewGroup) parent).removeView(view);
+        }
+        releaseTree(view, maxPerClass);
+    }
+
+    private static void releaseTree(View view, int maxPerClass) {
+        // children of RecyclerView are managed by itself
+        if (view instanceof ViewGroup && !(view instanceof RecyclerView)) {
+            ViewGroup viewGroup = (ViewGroup) view;
+            for (int i = viewGroup.getChildCount() - 1; i >= 0; i--) {
+                View child = viewGroup.getChildAt(i);
+                viewGroup.removeViewAt(i);
+                releaseTree(child, maxPerClass);
+            }
+        }
+
+        if (!isPoolable(view.getClass()) || !(view.getContext() instanceof
+                MutableContextWrapper)) {
+            return;
+        }
+
+        reset(view);
+
+        MutableContextWrapper context = (MutableContextWrapper) view.getContext();
+        context.setBaseContext(context.getApplicationContext());
+
+        synchronized (sPool) {
+            ArrayDeque<View> views = sPool.get(view.getClass());
+            if (views == null) {
+                views = new ArrayDeque<>();
+                sPool.put(view.getClass(), views);
+            }
+
+            if (views.size() < maxPerClass) {
+                views.addFirst(view);
+            }
+        }
+    }
+
+    /**
+     * Reset the states which may be set by {@link com.mozz.htmlnative.css.Styles} to any view,
+     * then the ones of view itself.
+     */
+    private static void reset(View view) {
+        view.setTag(null);
+        view.setOnClickListener(null);
+        view.setClickable(false);
+        view.setAlpha(1.f);
+        view.setVisibility(View.VISIBLE);
+        view.setPadding(0, 0, 0, 0);
+        view.setTextDirection(View.TEXT_DIRECTION_INHERIT);
+
+        if (view instanceof IRecyclableView) {
+            ((IRecyclableView) view).onRecycle();
+        } else if (view instanceof TextView) {
+            // the other states are restored when acquired
+            ((TextView) view).setText(null);
+        }
+    }
+
+    private static TextViewDefaults textViewDefaults(Context context) {
+        synchronized (sTextViewDefaults) {
+            TextViewDefaults defaults = sTextViewDefaults.get(context);
+            if (defaults == null) {
+                defaults = TextViewDefaults.of(new TextView(context));
+                sTextViewDefaults.put(context, defaults);
+            }
+            return defaults;
+        }
+    }
+
+    static void trimToHalf() {
+        synchronized (sPool) {
+            for (ArrayDeque<View> views : sPool.values()) {
+                for (int i = views.size() / 2; i > 0; i--) {
+                    views.pollLast();
+                }
+            }
+        }
+    }
+
+    static void clear() {
+        synchronized (sPool) {
+            sPool.clear();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.mozz.htmlnative;
 import android.app.Activity;
 import android.app.Application;
 import android.content.Context;
+import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.view.View;
@@ -12,11 +13,13 @@ import com.mozz.htmlnative.common.ContextProvider;
 import com.mozz.htmlnative.css.stylehandler.StyleHandlerFactory;
 import com.mozz.htmlnative.dom.HNHead;
 import com.mozz.htmlnative.http.HNHttpClient;
+import com.mozz.htmlnative.parser.StyleSheetCache;
 import com.mozz.htmlnative.script.ScriptFactory;
 import com.mozz.htmlnative.script.ScriptLib;
 import com.mozz.htmlnative.script.ScriptRunner;
 import com.mozz.htmlnative.script.lua.LuaRunner;
 import com.mozz.htmlnative.utils.ParametersUtils;
+import com.mozz.htmlnative.view.TextPreMeasurer;
 
 import java.io.InputStream;
 import java.lang.ref.WeakReference;
@@ -50,7 +53,12 @@ public final class HNativeEngine {
             throw new IllegalArgumentException("Config can't be null.");
         }
         sConfig = config;
-        sConfig.install();
+        sConfig.install(application);
+
+        application.registerComponentCallbacks(HNViewPool.trimCallbacks());
+        if (sConfig.getImageLoader() != null) {
+            application.registerComponentCallbacks(sConfig.getImageLoader().trimCallbacks());
+        }
 
         sInit = true;
     }
@@ -160,9 +168,33 @@ public final class HNativeEngine {
 
     public void destroy() {
         HNSegment.clearCache();
+        StyleSheetCache.clear();
         HNInternalThread.quit();
         HNScriptRunnerThread.quit();
         StyleHandlerFactory.clear();
+        HNViewPool.clear();
+        TextPreMeasurer.quit();
+        if (sConfig.getImageLoader() != null) {
+            sConfig.getImageLoader().shutdown();
+        }
+    }
+
+    /**
+     * Release the views of a page which is closed, so that their bitmaps are reused by the
+     * built-in image loader, and they are reused by the following renders if
+     * {@link HNConfig.Builder#setViewPoolSize(int)} is set. view and its descendants must not be
+     * used any more.
+     */
+    @MainThread
+    public static void recycleView(@NonNull View view) {
+        if (sConfig.getImageLoader() != null) {
+            sConfig.getImageLoader().releaseViews(view);
+        }
+
+        int viewPoolSize = sConfig.getViewPoolSize();
+        if (viewPoolSize > 0) {
+            HNViewPool.release(view, viewPoolSize);
+        }
     }
 
 
@@ -184,6 +216,34 @@ public final class HNativeEngine {
         return sConfig.getHttpClient();
     }
 
+    static boolean isFlattenHierarchy() {
+        return sConfig.isFlattenHierarchy();
+    }
+
+    static boolean isRenderInBackground() {
+        return sConfig.isRenderInBackground();
+    }
+
+    static boolean isTimeSlicedRender() {
+        return sConfig.isTimeSlicedRender();
+    }
+
+    static boolean isLazyRender() {
+        return sConfig.isLazyRender();
+    }
+
+    static int getViewPoolSize() {
+        return sConfig.getViewPoolSize();
+    }
+
+    static boolean isCompileRenderPlan() {
+        return sConfig.isCompileRenderPlan();
+    }
+
+    static boolean isPreMeasureText() {
+        return sConfig.isPreMeasureText();
+    }
+
     public interface OnHNViewLoaded {
         void onViewLoaded(View v);
 
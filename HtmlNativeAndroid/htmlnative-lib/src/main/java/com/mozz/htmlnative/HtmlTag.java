@@ -25,6 +25,12 @@ public final class HtmlTag {
      * then 'hello-world' which is plain text, will become an inner element.
      */
     public static final String INNER_TREE_TAG = "inner";
+
+    /**
+     * for the element merged from inline text, see
+     * {@link com.mozz.htmlnative.dom.InlineTextFlattener}
+     */
+    public static final String INLINE_TEXT_TAG = "inline";
     public static final String A = "a";
     public static final String P = "p";
     public static final String H1 = "h1";
@@ -47,6 +53,11 @@ public final class HtmlTag {
     static final String TEMPLATE = TokenType.Template.toString();
     public static final String TEXT = "text";
 
+    /**
+     * recycling list, its child is the item template, see {@link HNListAdapter}
+     */
+    public static final String LIST = "list";
+
     public static final String HEAD = "head";
     public static final String META = "meta";
     public static final String LINK = "link";
@@ -0,0 +1,171 @@
+package com.mozz.htmlnative;
+
+import android.support.annotation.NonNull;
+
+import com.mozz.htmlnative.css.ComputedStyle;
+import com.mozz.htmlnative.css.StyleConsumer;
+import com.mozz.htmlnative.css.StyleSymbols;
+import com.mozz.htmlnative.css.TextAppearance;
+import com.mozz.htmlnative.exception.AttrApplyException;
+
+/**
+ * Snapshot of the inherit styles of a node. It holds at most one value for each style name, the
+ * nearest one wins.
+ * <p>
+ * A child snapshot is created by {@link #inherit()}, which shares the storage of its parent by
+ * reference. Storage is copied on the first write of either side, so the tree of snapshots costs
+ * nothing until a node really changes an inherit style, and has no depth limit. The text styles
+ * are resolved into a {@link TextAppearance} at most once for each storage, and shared by the
+ * snapshots inheriting it.
+ *
+ * @author Yang Tao, 17/7/24.
+ */
+public final class InheritedStyle {
+
+    private static final int[] EMPTY_SYMBOLS = new int[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    private int[] mSymbols;
+    private Object[] mValues;
+    private int mSize;
+
+    /**
+     * True if storage may be referenced by another snapshot, then it must be copied before write.
+     */
+    private boolean mShared;
+
+    /**
+     * resolved text styles, null if not resolved yet, see {@link #getTextAppearance()}
+     */
+    private TextAppearance mTextAppearance;
+
+    InheritedStyle() {
+        mSymbols = EMPTY_SYMBOLS;
+        mValues = EMPTY_VALUES;
+        mSize = 0;
+        mShared = true;
+    }
+
+    private InheritedStyle(InheritedStyle parent) {
+        mSymbols = parent.mSymbols;
+        mValues = parent.mValues;
+        mSize = parent.mSize;
+        mShared = true;
+        mTextAppearance = parent.mTextAppearance;
+    }
+
+    /**
+     * @return a new snapshot for child, which shares the storage with this one.
+     */
+    @NonNull
+    public InheritedStyle inherit() {
+        mShared = true;
+        return new InheritedStyle(this);
+    }
+
+    public void put(@NonNull String styleName, Object style) {
+        int symbol = StyleSymbols.intern(styleName);
+
+        for (int i = 0; i < mSize; i++) {
+            if (mSymbols[i] == symbol) {
+                if (mValues[i] != style) {
+                    copyIfShared(mSize);
+                    mValues[i] = style;
+                    onWrite(styleName);
+                }
+                return;
+            }
+        }
+
+        copyIfShared(mSize + 1);
+        mSymbols[mSize] = symbol;
+        mValues[mSize] = style;
+        mSize++;
+        onWrite(styleName);
+    }
+
+    private void onWrite(String styleName) {
+        if (TextAppearance.isTextStyle(styleName)) {
+            mTextAppearance = null;
+        }
+    }
+
+    /**
+     * @return the inherit text styles resolved into one TextAppearance, which is
+     * {@link TextAppearance#EMPTY} if there is none.
+     */
+    @NonNull
+    public TextAppearance getTextAppearance() {
+        TextAppearance appearance = mTextAppearance;
+        if (appearance == null) {
+            ComputedStyle computedStyle = new ComputedStyle();
+            for (int i = 0; i < mSize; i++) {
+                if (mValues[i] != null) {
+                    computedStyle.setTextStyle(StyleSymbols.nameOf(mSymbols[i]), mValues[i]);
+                }
+            }
+            appearance = computedStyle.getTextAppearance();
+            if (appearance == null) {
+                appearance = TextAppearance.EMPTY;
+            }
+
+            // immutable, so it is fine that threads sharing a snapshot resolve it both
+            mTextAppearance = appearance;
+        }
+        return appearance;
+    }
+
+    public Object get(String styleName) {
+        int symbol = StyleSymbols.lookup(styleName);
+        for (int i = 0; i < mSize; i++) {
+            if (mSymbols[i] == symbol) {
+                return mValues[i];
+            }
+        }
+        return null;
+    }
+
+    private void copyIfShared(int required) {
+        if (!mShared && required <= mSymbols.length) {
+            return;
+        }
+
+        int capacity = Math.max(required, mSymbols.length);
+        if (required > mSymbols.length) {
+            capacity = Math.max(capacity, 4);
+            capacity = Math.max(capacity, mSymbols.length << 1);
+        }
+
+        int[] symbols = new int[capacity];
+        Object[] values = new Object[capacity];
+        System.arraycopy(mSymbols, 0, symbols, 0, mSize);
+        System.arraycopy(mValues, 0, values, 0, mSize);
+        mSymbols = symbols;
+        mValues = values;
+        mShared = false;
+    }
+
+    /**
+     * Walk through all the inherit styles, without allocating.
+     */
+    public void forEach(@NonNull StyleConsumer consumer) throws AttrApplyException {
+        for (int i = 0; i < mSize; i++) {
+            consumer.accept(StyleSymbols.nameOf(mSymbols[i]), mValues[i]);
+        }
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < mSize; i++) {
+            sb.append(StyleSymbols.nameOf(mSymbols[i])).append("=").append(mValues[i]);
+            sb.append(",");
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.mozz.htmlnative;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Load the css source of {@code <link rel="stylesheet" href="...">}. It is called on the parse
+ * thread, so it is fine to do blocking work here.
+ * You should set this via {@link HNConfig}
+ *
+ * @author Yang Tao, 17/7/20.
+ */
+
+public interface StyleSheetLoader {
+
+    /**
+     * @param href href of the link tag
+     * @return css source, or null if it can not be loaded.
+     */
+    @Nullable
+    String loadStyleSheet(String href);
+}
@@ -0,0 +1,162 @@
+package com.mozz.htmlnative;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.webkit.WebView;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import com.google.android.flexbox.FlexboxLayout;
+
+import com.mozz.htmlnative.css.AttrsSet;
+import com.mozz.htmlnative.dom.HNDomTree;
+import com.mozz.htmlnative.view.HNDivLayout;
+import com.mozz.htmlnative.view.HNImg;
+import com.mozz.htmlnative.view.HNListView;
+import com.mozz.htmlnative.view.HNText;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Factories creating the built-in views by calling their constructors directly, so reflection is
+ * only left for the views registered by {@link HNViewType}.
+ * <p>
+ * The factory of each element is resolved once after the segment is parsed, see
+ * {@link #resolve(HNDomTree, AttrsSet)}, and kept by the element for rendering.
+ *
+ * @author Yang Tao, 17/8/6.
+ */
+
+final class ViewFactories {
+
+    /**
+     * built-in factories keyed by class name, filled once in class initialization and only read
+     * afterwards.
+     */
+    private static final Map<String, BuiltinFactory<?>> sFactories = new HashMap<>();
+
+    static {
+        register(new BuiltinFactory<HNDivLayout>(HNDivLayout.class) {
+            @Override
+            public HNDivLayout create(Context context) {
+                return new HNDivLayout(context);
+            }
+        });
+        register(new BuiltinFactory<HNText>(HNText.class) {
+            @Override
+            public HNText create(Context context) {
+                return new HNText(context);
+            }
+        });
+        register(new BuiltinFactory<HNImg>(HNImg.class) {
+            @Override
+            public HNImg create(Context context) {
+                return new HNImg(context);
+            }
+        });
+        register(new BuiltinFactory<TextView>(TextView.class) {
+            @Override
+            public TextView create(Context context) {
+                return new TextView(context);
+            }
+        });
+        register(new BuiltinFactory<EditText>(EditText.class) {
+            @Override
+            public EditText create(Context context) {
+                return new EditText(context);
+            }
+        });
+        register(new BuiltinFactory<Button>(Button.class) {
+            @Override
+            public Button create(Context context) {
+                return new Button(context);
+            }
+        });
+        register(new BuiltinFactory<ScrollView>(ScrollView.class) {
+            @Override
+            public ScrollView create(Context context) {
+                return new ScrollView(context);
+            }
+        });
+        register(new BuiltinFactory<WebView>(WebView.class) {
+            @Override
+            public WebView create(Context context) {
+                return new WebView(context);
+            }
+        });
+        register(new BuiltinFactory<FlexboxLayout>(FlexboxLayout.class) {
+            @Override
+            public FlexboxLayout create(Context context) {
+                return new FlexboxLayout(context);
+            }
+        });
+        register(new BuiltinFactory<HNListView>(HNListView.class) {
+            @Override
+            public HNListView create(Context context) {
+                return new HNListView(context);
+            }
+        });
+    }
+
+    private ViewFactories() {
+
+    }
+
+    private static void register(BuiltinFactory<?> factory) {
+        sFactories.put(factory.getClassName(), factory);
+    }
+
+    /**
+     * @return the built-in factory of class, or null if it is not a built-in one.
+     */
+    @Nullable
+    static BuiltinFactory<?> get(@NonNull String viewClassName) {
+        return sFactories.get(viewClassName);
+    }
+
+    /**
+     * Resolve the factory of tree and all its descendants.
+     *
+     * @param attrsSet inline styles of segment, from which the display of grouping element is
+     *                 read
+     */
+    static void resolve(@NonNull HNDomTree tree, @NonNull AttrsSet attrsSet) {
+        String type = tree.getType();
+        if (type != null) {
+            if (HtmlTag.isGroupingElement(type)) {
+                type = HNRenderer.groupingViewType(tree, attrsSet);
+            }
+
+            String viewClassName = ViewTypeRelations.findClassByType(type);
+            tree.setViewFactory(viewClassName != null ? sFactories.get(viewClassName) : null);
+        }
+
+        for (HNDomTree child : tree.children()) {
+            resolve(child, attrsSet);
+        }
+    }
+
+    abstract static class BuiltinFactory<T extends View> implements HNRenderer.ViewFactory<T> {
+
+        private final Class<T> mViewClass;
+        private final String mClassName;
+
+        BuiltinFactory(Class<T> viewClass) {
+            mViewClass = viewClass;
+            mClassName = viewClass.getName();
+        }
+
+        Class<T> getViewClass() {
+            return mViewClass;
+        }
+
+        String getClassName() {
+            return mClassName;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import android.widget.TextView;
 import com.google.android.flexbox.FlexboxLayout;
 import com.mozz.htmlnative.view.HNDivLayout;
 import com.mozz.htmlnative.view.HNImg;
+import com.mozz.htmlnative.view.HNListView;
 import com.mozz.htmlnative.view.HNText;
 
 import java.util.Map;
@@ -50,6 +51,7 @@ public final class ViewTypeRelations {
         sReservedTagClassTable.put(HtmlTag.INPUT, EditText.class.getName());
         sReservedTagClassTable.put(HtmlTag.BUTTON, Button.class.getName());
         sReservedTagClassTable.put(HtmlTag.SCROLLER, ScrollView.class.getName());
+        sReservedTagClassTable.put(HtmlTag.LIST, HNListView.class.getName());
         sReservedTagClassTable.put(HtmlTag.IFRAME, WebView.class.getName());
         sReservedTagClassTable.put(HtmlTag.WEB, WebView.class.getName());
         sReservedTagClassTable.put(HtmlTag.A, HNText.class.getName());
@@ -63,6 +65,7 @@ public final class ViewTypeRelations {
 
         // for inner element only
         sReservedTagClassTable.put(HtmlTag.INNER_TREE_TAG, TextView.class.getName());
+        sReservedTagClassTable.put(HtmlTag.INLINE_TEXT_TAG, HNText.class.getName());
     }
 
     /**
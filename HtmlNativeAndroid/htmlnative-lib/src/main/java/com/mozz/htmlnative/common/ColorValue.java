@@ -0,0 +1,56 @@
+package com.mozz.htmlnative.common;
+
+import android.support.annotation.NonNull;
+
+import com.mozz.htmlnative.utils.CssColors;
+
+/**
+ * Color parsed when building the style sheet, so that rendering does not need to parse the color
+ * string again.
+ *
+ * @author Yang Tao, 17/7/27.
+ */
+
+public final class ColorValue {
+
+    private final int color;
+    private final String source;
+
+    private ColorValue(int color, String source) {
+        this.color = color;
+        this.source = source;
+    }
+
+    /**
+     * @return ColorValue of the string, or null if the string is not a color.
+     */
+    public static ColorValue parse(@NonNull String colorString) {
+        try {
+            return new ColorValue(CssColors.parse(colorString), colorString);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ColorValue && ((ColorValue) o).color == color;
+    }
+
+    @Override
+    public int hashCode() {
+        return color;
+    }
+
+    /**
+     * @return the original color string, so it can still be used as a raw style value.
+     */
+    @Override
+    public String toString() {
+        return source;
+    }
+}
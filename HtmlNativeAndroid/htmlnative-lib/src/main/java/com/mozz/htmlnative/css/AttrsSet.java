@@ -1,11 +1,25 @@
 package com.mozz.htmlnative.css;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+
+import com.mozz.htmlnative.exception.AttrApplyException;
 
 import java.util.Arrays;
 import java.util.Iterator;
 
 /**
+ * A packed arena of style declarations. Each owner gets a slot when registered, the slot keeps
+ * the start and length of the owner's declarations. Keys are stored as {@link StyleSymbols} ids
+ * in an int array, values in a parallel Object array.
+ * <p>
+ * Declarations of an owner are always contiguous. If an owner is not the last one written, its
+ * declarations are moved to the tail before appending, so interleaved puts never overlap.
+ * <p>
+ * The text styles of each owner are resolved into a {@link TextAppearance} when they are
+ * written, so the elements using the owner share one instance instead of parsing them again.
+ *
  * @author YangTao7
  *         NOT THREAD SAFE
  */
@@ -14,90 +28,219 @@ public class AttrsSet {
 
     private static final String TAG = AttrsSet.class.getSimpleName();
 
+    private int[] mKeys;
+    private Object[] mValues;
+
+    /**
+     * count of used entries in mKeys and mValues, including the garbage left by relocation.
+     */
+    private int mSize;
+
+    /**
+     * count of entries left by relocation, which will be dropped in next compaction.
+     */
+    private int mGarbage;
+
+    private int[] mStarts;
+    private int[] mLengths;
+    private int mOwnerCount;
+
+    /**
+     * text styles of each owner, null if it has none, see {@link #getTextAppearance(AttrsOwner)}
+     */
+    private TextAppearance[] mTextAppearances;
+
+    /**
+     * the owner slot whose declarations end at mSize, which can be appended in place.
+     */
+    private int mTailOwner = -1;
 
-    private Object[] mAttrs;
-    private int[] mLength;
-    private int mGrowLength;
-    private int mLastGrowLength = -1;
-    private int mCompacity;
     private String mName;
 
+    /**
+     * Owners having more declarations than this will get an index to speed up
+     * {@link #getStyle(AttrsOwner, String)}
+     */
+    private static final int INDEX_THRESHOLD = 8;
+
+    /**
+     * Open-addressed index of owners, keyed by owner slot. Each slot of index holds position + 1
+     * of the declaration, 0 means empty. Indexes are kept up to date by writes, so reading never
+     * modifies the set, and a sealed {@link StyleSheet} can be read by several threads.
+     */
+    private SparseArray<int[]> mIndexes;
+
     public AttrsSet(String name) {
         this(name, 10);
     }
 
     public AttrsSet(String name, int initCompacity) {
-        mAttrs = new Object[initCompacity << 1];
-        mLength = new int[initCompacity];
-        mGrowLength = 0;
-        mCompacity = initCompacity;
+        if (initCompacity < 1) {
+            initCompacity = 1;
+        }
+        mKeys = new int[initCompacity];
+        mValues = new Object[initCompacity];
+        mStarts = new int[initCompacity];
+        mLengths = new int[initCompacity];
+        mTextAppearances = new TextAppearance[initCompacity];
         mName = name;
     }
 
     public void put(@NonNull AttrsOwner tree, String paramsKey, @NonNull Object value) {
-        int startPosition = tree.attrIndex();
+        int owner = tree.attrIndex();
+        int length = mLengths[owner];
+
+        if (owner == mTailOwner) {
+            ensureCapacity(1);
+        }
 
-        putInternal(startPosition + mLength[startPosition], paramsKey, value);
-        mLength[startPosition]++;
+        // compaction in ensureCapacity may have moved the owner away from the tail, so check again.
+        boolean relocated = owner != mTailOwner;
+        if (relocated) {
+            ensureCapacity(length + 1);
+
+            // move the declarations to the tail, so that they stay contiguous.
+            int oldStart = mStarts[owner];
+            System.arraycopy(mKeys, oldStart, mKeys, mSize, length);
+            System.arraycopy(mValues, oldStart, mValues, mSize, length);
+            Arrays.fill(mValues, oldStart, oldStart + length, null);
+
+            mStarts[owner] = mSize;
+            mSize += length;
+            mGarbage += length;
+            mTailOwner = owner;
+        }
+
+        mKeys[mSize] = StyleSymbols.intern(paramsKey);
+        mValues[mSize] = value;
+        mSize++;
+        mLengths[owner]++;
+
+        updateIndex(owner, relocated);
+        if (TextAppearance.isTextStyle(paramsKey)) {
+            updateTextAppearance(owner);
+        }
     }
 
-    private void putInternal(int position, String paramsKey, Object value) {
-        if (position >= mCompacity) {
-            grow(mCompacity);
+    /**
+     * Replace the value of the first declaration of paramsKey in tree, if tree does not declare
+     * paramsKey yet, it is the same as {@link #put(AttrsOwner, String, Object)}.
+     */
+    public void replace(@NonNull AttrsOwner tree, String paramsKey, @NonNull Object value) {
+        int symbol = StyleSymbols.lookup(paramsKey);
+        if (symbol != StyleSymbols.NO_SYMBOL) {
+            int start = mStarts[tree.attrIndex()];
+            for (int i = start; i < start + mLengths[tree.attrIndex()]; i++) {
+                if (mKeys[i] == symbol) {
+                    mValues[i] = value;
+                    if (TextAppearance.isTextStyle(paramsKey)) {
+                        updateTextAppearance(tree.attrIndex());
+                    }
+                    return;
+                }
+            }
         }
 
-        mAttrs[position << 1] = paramsKey;
-        mAttrs[(position << 1) + 1] = value;
-        mGrowLength++;
+        put(tree, paramsKey, value);
     }
 
-    private void grow(int growSize) {
-        if (growSize > 0) {
-            Object[] temp = mAttrs;
-            int[] tempL = mLength;
+    private void ensureCapacity(int extra) {
+        if (mSize + extra <= mKeys.length) {
+            return;
+        }
 
-            mAttrs = new Object[(mCompacity + growSize) << 1];
-            mLength = new int[mCompacity + growSize];
+        // reclaim the relocated entries first, if they are worth it.
+        if (mGarbage > 0 && mGarbage >= (mSize >> 1)) {
+            compact();
+            if (mSize + extra <= mKeys.length) {
+                return;
+            }
+        }
 
-            System.arraycopy(temp, 0, mAttrs, 0, mCompacity << 1);
-            System.arraycopy(tempL, 0, mLength, 0, mCompacity);
+        int newCapacity = Math.max(mKeys.length << 1, mSize + extra);
+        mKeys = Arrays.copyOf(mKeys, newCapacity);
+        mValues = Arrays.copyOf(mValues, newCapacity);
+    }
 
-            mCompacity += growSize;
+    /**
+     * Pack the declarations of all owners in owner order, dropping the garbage.
+     */
+    private void compact() {
+        int[] keys = new int[mKeys.length];
+        Object[] values = new Object[mValues.length];
+
+        int pos = 0;
+        for (int owner = 0; owner < mOwnerCount; owner++) {
+            int length = mLengths[owner];
+            System.arraycopy(mKeys, mStarts[owner], keys, pos, length);
+            System.arraycopy(mValues, mStarts[owner], values, pos, length);
+            mStarts[owner] = pos;
+            pos += length;
+        }
+
+        mKeys = keys;
+        mValues = values;
+        mSize = pos;
+        mGarbage = 0;
+        mTailOwner = mOwnerCount - 1;
+
+        if (mIndexes != null) {
+            for (int i = 0; i < mIndexes.size(); i++) {
+                int owner = mIndexes.keyAt(i);
+                mIndexes.setValueAt(i, buildIndex(mStarts[owner], mLengths[owner]));
+            }
         }
     }
 
     public void register(@NonNull AttrsOwner tree) {
-        if (mLastGrowLength == mGrowLength) {
-            mGrowLength++;
+        if (mOwnerCount == mStarts.length) {
+            int newCapacity = mStarts.length << 1;
+            mStarts = Arrays.copyOf(mStarts, newCapacity);
+            mLengths = Arrays.copyOf(mLengths, newCapacity);
+            mTextAppearances = Arrays.copyOf(mTextAppearances, newCapacity);
         }
 
-        if (mGrowLength >= mCompacity) {
-            grow(mCompacity);
-        }
+        int owner = mOwnerCount++;
+        mStarts[owner] = mSize;
+        mLengths[owner] = 0;
+        mTextAppearances[owner] = null;
+        mTailOwner = owner;
 
-        tree.setAttrIndex(mGrowLength);
-        mLastGrowLength = mGrowLength;
+        tree.setAttrIndex(owner);
     }
 
     @Override
     public String toString() {
-        return Arrays.toString(mAttrs);
+        StringBuilder sb = new StringBuilder("[");
+        for (int owner = 0; owner < mOwnerCount; owner++) {
+            if (owner > 0) {
+                sb.append(", ");
+            }
+            appendOwner(sb, owner);
+        }
+        return sb.append(']').toString();
     }
 
     public String toString(@NonNull AttrsOwner tree) {
-        int startPos = tree.attrIndex();
-        int length = mLength[startPos];
-
-        Object[] objects = new Object[length << 1];
-        System.arraycopy(mAttrs, startPos << 1, objects, 0, length << 1);
+        StringBuilder sb = new StringBuilder("[");
+        appendOwner(sb, tree.attrIndex());
+        return sb.append(']').toString();
+    }
 
-        return Arrays.toString(objects);
+    private void appendOwner(StringBuilder sb, int owner) {
+        int start = mStarts[owner];
+        for (int i = start; i < start + mLengths[owner]; i++) {
+            if (i > start) {
+                sb.append(", ");
+            }
+            sb.append(getStyleName(i)).append(", ").append(getStyle(i));
+        }
     }
 
 
     public final Iterator<Styles.StyleEntry> iterator(AttrsOwner owner) {
-        final int startPosition = owner.attrIndex();
-        final int length = mLength[startPosition];
+        final int startPosition = mStarts[owner.attrIndex()];
+        final int length = mLengths[owner.attrIndex()];
 
         return new Iterator<Styles.StyleEntry>() {
 
@@ -123,32 +266,139 @@ public class AttrsSet {
         };
     }
 
+    /**
+     * Walk through all the declarations of owner in insert order, without allocating.
+     */
+    public final void forEach(@NonNull AttrsOwner owner, @NonNull StyleConsumer consumer) throws
+            AttrApplyException {
+        final int startPosition = mStarts[owner.attrIndex()];
+        final int end = startPosition + mLengths[owner.attrIndex()];
+
+        for (int i = startPosition; i < end; i++) {
+            consumer.accept(getStyleName(i), getStyle(i));
+        }
+    }
 
     public final Object getStyle(AttrsOwner owner, String styleName) {
         if (owner == null) {
             return null;
         }
-        int startPosition = owner.attrIndex();
-        int treeAttrLength = mLength[startPosition];
+
+        int symbol = StyleSymbols.lookup(styleName);
+        if (symbol == StyleSymbols.NO_SYMBOL) {
+            return null;
+        }
+
+        int slot = owner.attrIndex();
+        int startPosition = mStarts[slot];
+        int treeAttrLength = mLengths[slot];
+
+        if (treeAttrLength > INDEX_THRESHOLD) {
+            return getStyleIndexed(mIndexes.get(slot), symbol);
+        }
 
         for (int i = startPosition; i < startPosition + treeAttrLength; i++) {
-            String params = (String) mAttrs[i << 1];
-            final Object value = mAttrs[(i << 1) + 1];
+            if (mKeys[i] == symbol) {
+                return mValues[i];
+            }
+        }
+
+        return null;
+    }
 
-            if (params.equals(styleName)) {
-                return value;
+    private Object getStyleIndexed(int[] index, int symbol) {
+        int mask = index.length - 1;
+        for (int i = hash(symbol) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int pos = index[i] - 1;
+            if (mKeys[pos] == symbol) {
+                return mValues[pos];
             }
         }
 
         return null;
     }
 
+    /**
+     * @return the text styles of owner resolved into one TextAppearance, null if owner has
+     * none. The same instance is returned until owner writes a text style again.
+     */
+    @Nullable
+    public final TextAppearance getTextAppearance(@NonNull AttrsOwner owner) {
+        return mTextAppearances[owner.attrIndex()];
+    }
+
+    private void updateTextAppearance(int owner) {
+        ComputedStyle computedStyle = new ComputedStyle();
+        int start = mStarts[owner];
+        for (int i = start; i < start + mLengths[owner]; i++) {
+            computedStyle.setTextStyle(getStyleName(i), mValues[i]);
+        }
+        mTextAppearances[owner] = computedStyle.getTextAppearance();
+    }
+
+    private int[] buildIndex(int startPosition, int length) {
+        // keep load factor under 0.5
+        int size = Integer.highestOneBit(length) << 2;
+        int[] index = new int[size];
+
+        for (int pos = startPosition; pos < startPosition + length; pos++) {
+            addToIndex(index, pos);
+        }
+
+        return index;
+    }
+
+    private void addToIndex(int[] index, int pos) {
+        int mask = index.length - 1;
+        int symbol = mKeys[pos];
+        int i = hash(symbol) & mask;
+        while (index[i] != 0 && mKeys[index[i] - 1] != symbol) {
+            i = (i + 1) & mask;
+        }
+
+        // same as linear lookup, the first declaration wins
+        if (index[i] == 0) {
+            index[i] = pos + 1;
+        }
+    }
+
+    /**
+     * Called after a declaration is appended to owner, index the owner once it grows over
+     * {@link #INDEX_THRESHOLD}.
+     *
+     * @param relocated whether the declarations of owner have been moved before appending
+     */
+    private void updateIndex(int owner, boolean relocated) {
+        int length = mLengths[owner];
+        if (length <= INDEX_THRESHOLD) {
+            return;
+        }
+
+        if (mIndexes == null) {
+            mIndexes = new SparseArray<>();
+        }
+
+        int[] index = mIndexes.get(owner);
+        // keep load factor under 0.5
+        if (index == null || relocated || length << 1 > index.length) {
+            mIndexes.put(owner, buildIndex(mStarts[owner], length));
+        } else {
+            addToIndex(index, mSize - 1);
+        }
+    }
+
+    private static int hash(int symbol) {
+        // Fibonacci hashing, spread the sequential ids over the table.
+        int h = symbol * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
     protected final String getStyleName(int pos) {
-        return (String) mAttrs[pos << 1];
+        return StyleSymbols.nameOf(mKeys[pos]);
     }
 
     protected final Object getStyle(int pos) {
-        return mAttrs[(pos << 1) + 1];
+        return mValues[pos];
     }
 
     public String getName() {
@@ -4,19 +4,23 @@ import android.graphics.Color;
 import android.graphics.Matrix;
 import android.text.TextUtils;
 
+import com.mozz.htmlnative.utils.CssColors;
+
 import static com.mozz.htmlnative.utils.ParametersUtils.ParametersParseException;
 import static com.mozz.htmlnative.utils.ParametersUtils.getPercent;
-import static com.mozz.htmlnative.utils.ParametersUtils.isHtmlColorString;
 import static com.mozz.htmlnative.utils.ParametersUtils.splitByEmpty;
 import static com.mozz.htmlnative.utils.ParametersUtils.toColor;
 import static com.mozz.htmlnative.utils.ParametersUtils.toHtmlColorString;
 import static com.mozz.htmlnative.utils.ParametersUtils.toPixel;
 
 /**
+ * Immutable once built, so that one Background can be shared by all the elements matching the
+ * same css rule. Use {@link Builder} or {@link #newBuilder()} to create a new one.
+ *
  * @author Yang Tao, 17/3/24.
  */
 
-public class Background {
+public final class Background {
 
     public static final int REPEAT = 0x00000001;
     public static final int REPEAT_X = 0x00000002;
@@ -35,28 +39,72 @@ public class Background {
     private static final int LK_WIDTH = 5;
     private static final int LK_HEIGHT = 6;
 
-    private String url = "";
-    private int color = Color.TRANSPARENT;
-    private boolean colorSet = false;
-    private int repeat = REPEAT;
-    private float x;
-    private float y;
-    private float width;
-    private float height;
-
-    private float colorWidth = 1.f;
-    private float colorHeight = 1.f;
-
-    private int colorWidthMode = PERCENTAGE;
-    private int colorHeightMode = PERCENTAGE;
-
-    private int xMode = PERCENTAGE;
-    private int yMode = PERCENTAGE;
-    private int widthMode = AUTO;
-    private int heightMode = AUTO;
-
-    private boolean isAndroidResource = false;
+    private final String url;
+    private final int color;
+    private final boolean colorSet;
+    private final int repeat;
+    private final float x;
+    private final float y;
+    private final float width;
+    private final float height;
+
+    private final float colorWidth;
+    private final float colorHeight;
+
+    private final int colorWidthMode;
+    private final int colorHeightMode;
+
+    private final int xMode;
+    private final int yMode;
+    private final int widthMode;
+    private final int heightMode;
+
+    private final boolean isAndroidResource;
+
+    private Background(Builder builder) {
+        url = builder.url;
+        color = builder.color;
+        colorSet = builder.colorSet;
+        repeat = builder.repeat;
+        x = builder.x;
+        y = builder.y;
+        width = builder.width;
+        height = builder.height;
+        colorWidth = builder.colorWidth;
+        colorHeight = builder.colorHeight;
+        colorWidthMode = builder.colorWidthMode;
+        colorHeightMode = builder.colorHeightMode;
+        xMode = builder.xMode;
+        yMode = builder.yMode;
+        widthMode = builder.widthMode;
+        heightMode = builder.heightMode;
+        isAndroidResource = builder.isAndroidResource;
+    }
 
+    /**
+     * @return a Builder initialized with the value of this, used to derive a new Background.
+     */
+    public Builder newBuilder() {
+        Builder builder = new Builder();
+        builder.url = url;
+        builder.color = color;
+        builder.colorSet = colorSet;
+        builder.repeat = repeat;
+        builder.x = x;
+        builder.y = y;
+        builder.width = width;
+        builder.height = height;
+        builder.colorWidth = colorWidth;
+        builder.colorHeight = colorHeight;
+        builder.colorWidthMode = colorWidthMode;
+        builder.colorHeightMode = colorHeightMode;
+        builder.xMode = xMode;
+        builder.yMode = yMode;
+        builder.widthMode = widthMode;
+        builder.heightMode = heightMode;
+        builder.isAndroidResource = isAndroidResource;
+        return builder;
+    }
 
     @Override
     public String toString() {
@@ -72,11 +120,6 @@ public class Background {
                 " / " + widthStr + " " + heightStr + " " + repeatToString(repeat);
     }
 
-    public void setColor(int color) {
-        this.color = color;
-        this.colorSet = true;
-    }
-
     public boolean isColorSet() {
         return this.colorSet;
     }
@@ -85,13 +128,6 @@ public class Background {
         return this.color;
     }
 
-    public void setUrl(String url) {
-        if (url.charAt(0) == '@') {
-            this.isAndroidResource = true;
-        }
-        this.url = url;
-    }
-
     public String getUrl() {
         return this.url;
     }
@@ -100,26 +136,14 @@ public class Background {
         return repeat;
     }
 
-    public void setRepeat(int repeat) {
-        this.repeat = repeat;
-    }
-
     public float getX() {
         return x;
     }
 
-    public void setX(float x) {
-        this.x = x;
-    }
-
     public float getY() {
         return y;
     }
 
-    public void setY(float y) {
-        this.y = y;
-    }
-
     public float getWidth() {
         return width;
     }
@@ -144,12 +168,19 @@ public class Background {
         return heightMode;
     }
 
+    /**
+     * Parse the style into a new Background. oldOne is never modified, as it may be shared by
+     * all the elements matching the same css rule.
+     *
+     * @param oldOne Background parsed from the previous background styles of the same rule, or
+     *               null
+     */
     public static Background createOrChange(String param, String val, Object oldOne) {
-        Background style;
-        if (oldOne == null) {
-            style = new Background();
+        Builder style;
+        if (oldOne instanceof Background) {
+            style = ((Background) oldOne).newBuilder();
         } else {
-            style = (Background) oldOne;
+            style = new Builder();
         }
 
         String[] subStrings = splitByEmpty(val);
@@ -169,7 +200,7 @@ public class Background {
                                 .trim());
                         lk = LK_URL + 1;
 
-                    } else if (item.startsWith("#") || isHtmlColorString(item)) {
+                    } else if (CssColors.isColor(item)) {
                         try {
                             style.setColor(toColor(item));
                         } catch (ParametersParseException e) {
@@ -455,7 +486,7 @@ public class Background {
             break;
         }
 
-        return style;
+        return style.build();
     }
 
     public static Matrix createBitmapMatrix(Background background) {
@@ -498,4 +529,62 @@ public class Background {
     boolean isAndroidResource() {
         return isAndroidResource;
     }
+
+    /**
+     * @author Yang Tao, 17/7/28.
+     */
+    public static final class Builder {
+        private String url = "";
+        private int color = Color.TRANSPARENT;
+        private boolean colorSet = false;
+        private int repeat = REPEAT;
+        private float x;
+        private float y;
+        private float width;
+        private float height;
+
+        private float colorWidth = 1.f;
+        private float colorHeight = 1.f;
+
+        private int colorWidthMode = PERCENTAGE;
+        private int colorHeightMode = PERCENTAGE;
+
+        private int xMode = PERCENTAGE;
+        private int yMode = PERCENTAGE;
+        private int widthMode = AUTO;
+        private int heightMode = AUTO;
+
+        private boolean isAndroidResource = false;
+
+        public Builder setColor(int color) {
+            this.color = color;
+            this.colorSet = true;
+            return this;
+        }
+
+        public Builder setUrl(String url) {
+            this.isAndroidResource = url.length() > 0 && url.charAt(0) == '@';
+            this.url = url;
+            return this;
+        }
+
+        public Builder setRepeat(int repeat) {
+            this.repeat = repeat;
+            return this;
+        }
+
+        public Builder setX(float x) {
+            this.x = x;
+            return this;
+        }
+
+        public Builder setY(float y) {
+            this.y = y;
+            return this;
+        }
+
+        public Background build() {
+            return new Background(this);
+        }
+    }
 }
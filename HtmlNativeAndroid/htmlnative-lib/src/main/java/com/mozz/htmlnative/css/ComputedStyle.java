@@ -0,0 +1,283 @@
+package com.mozz.htmlnative.css;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.TextView;
+
+import com.mozz.htmlnative.common.PixelValue;
+import com.mozz.htmlnative.utils.ParametersUtils;
+import com.mozz.htmlnative.view.HNText;
+
+import static com.mozz.htmlnative.utils.ParametersUtils.toColor;
+import static com.mozz.htmlnative.utils.ParametersUtils.toPixel;
+
+/**
+ * Resolved style of an element, which is collected first and then committed to the view with
+ * one call per property group, like what {@link com.mozz.htmlnative.view.LayoutParamsCreator}
+ * does for layout params. So that several declarations of the same group, such as padding of
+ * each side, or font-weight and font-style, only mutate the view once.
+ * <p>
+ * A TextAppearance resolved ahead is kept as it is until another text style is set, so the
+ * elements sharing it commit the same instance.
+ *
+ * @author Yang Tao, 17/7/25.
+ */
+
+public final class ComputedStyle {
+
+    private static final int PADDING_LEFT = 1;
+    private static final int PADDING_TOP = 1 << 1;
+    private static final int PADDING_RIGHT = 1 << 2;
+    private static final int PADDING_BOTTOM = 1 << 3;
+    private static final int PADDING = PADDING_LEFT | PADDING_TOP | PADDING_RIGHT |
+            PADDING_BOTTOM;
+
+    // text styles are kept in the bits above padding, and committed as a TextAppearance
+    private static final int TEXT_SHIFT = 4;
+    private static final int TEXT_SIZE = TextAppearance.TEXT_SIZE << TEXT_SHIFT;
+    private static final int TEXT_COLOR = TextAppearance.TEXT_COLOR << TEXT_SHIFT;
+    private static final int FONT_WEIGHT = TextAppearance.FONT_WEIGHT << TEXT_SHIFT;
+    private static final int FONT_STYLE = TextAppearance.FONT_STYLE << TEXT_SHIFT;
+    private static final int LINE_SPACING = TextAppearance.LINE_SPACING << TEXT_SHIFT;
+    private static final int GRAVITY = TextAppearance.GRAVITY << TEXT_SHIFT;
+
+    private int mFlags;
+
+    private int mPaddingLeft;
+    private int mPaddingTop;
+    private int mPaddingRight;
+    private int mPaddingBottom;
+
+    private int mTextSizeUnit;
+    private float mTextSize;
+    private int mTextColor;
+    private boolean mBold;
+    private boolean mItalic;
+    private float mLineSpacingExtra;
+    private float mLineSpacingMultiplier;
+    private int mGravity;
+
+    /**
+     * shared TextAppearance set by {@link #setTextAppearance(TextAppearance)}, copied into the
+     * fields above once another text style is set.
+     */
+    private TextAppearance mTextAppearance;
+
+    public void setPadding(int left, int top, int right, int bottom) {
+        mPaddingLeft = left;
+        mPaddingTop = top;
+        mPaddingRight = right;
+        mPaddingBottom = bottom;
+        mFlags |= PADDING;
+    }
+
+    public void setPaddingLeft(int left) {
+        mPaddingLeft = left;
+        mFlags |= PADDING_LEFT;
+    }
+
+    public void setPaddingTop(int top) {
+        mPaddingTop = top;
+        mFlags |= PADDING_TOP;
+    }
+
+    public void setPaddingRight(int right) {
+        mPaddingRight = right;
+        mFlags |= PADDING_RIGHT;
+    }
+
+    public void setPaddingBottom(int bottom) {
+        mPaddingBottom = bottom;
+        mFlags |= PADDING_BOTTOM;
+    }
+
+    public void setTextSize(int unit, float size) {
+        unshare();
+        mTextSizeUnit = unit;
+        mTextSize = size;
+        mFlags |= TEXT_SIZE;
+    }
+
+    public void setTextColor(int color) {
+        unshare();
+        mTextColor = color;
+        mFlags |= TEXT_COLOR;
+    }
+
+    public void setBold(boolean bold) {
+        unshare();
+        mBold = bold;
+        mFlags |= FONT_WEIGHT;
+    }
+
+    public void setItalic(boolean italic) {
+        unshare();
+        mItalic = italic;
+        mFlags |= FONT_STYLE;
+    }
+
+    public void setLineSpacing(float extra, float multiplier) {
+        unshare();
+        mLineSpacingExtra = extra;
+        mLineSpacingMultiplier = multiplier;
+        mFlags |= LINE_SPACING;
+    }
+
+    public void setGravity(int gravity) {
+        unshare();
+        mGravity = gravity;
+        mFlags |= GRAVITY;
+    }
+
+    /**
+     * Set the text styles of appearance, the same as setting them one by one. If no text style
+     * has been set yet, appearance is kept as it is and committed without copying.
+     */
+    public void setTextAppearance(@Nullable TextAppearance appearance) {
+        if (appearance == null || appearance.isEmpty()) {
+            return;
+        }
+
+        if (mTextAppearance == null && (mFlags >>> TEXT_SHIFT) == 0) {
+            mTextAppearance = appearance;
+        } else {
+            appearance.copyTo(this);
+        }
+    }
+
+    /**
+     * Resolve a text style into this one, see {@link TextAppearance#isTextStyle(String)}.
+     *
+     * @return false if styleName is not a text style
+     */
+    public boolean setTextStyle(@NonNull String styleName, @NonNull Object value) {
+        try {
+            switch (styleName) {
+                case TextAppearance.STYLE_COLOR:
+                    setTextColor(toColor(value));
+                    return true;
+
+                case TextAppearance.STYLE_FONT_SIZE:
+                    PixelValue size = toPixel(value);
+                    setTextSize(size.getUnit(), size.getPxValue());
+                    return true;
+
+                case TextAppearance.STYLE_LINE_HEIGHT:
+                    if (value instanceof String) {
+                        if (((String) value).endsWith("%")) {
+                            setLineSpacing(0, ParametersUtils.getPercent((String) value));
+                        } else {
+                            setLineSpacing(toPixel(value).getPxValue(), 0);
+                        }
+                    }
+                    return true;
+
+                case TextAppearance.STYLE_FONT_WEIGHT:
+                    String weight = value.toString();
+                    if (weight.equals("bold")) {
+                        setBold(true);
+                    } else if (weight.equals("normal")) {
+                        setBold(false);
+                    }
+                    return true;
+
+                case TextAppearance.STYLE_FONT_STYLE:
+                    String style = value.toString();
+                    if (style.equals("italic")) {
+                        setItalic(true);
+                    } else if (style.equals("normal")) {
+                        setItalic(false);
+                    }
+                    return true;
+
+                case TextAppearance.STYLE_TEXT_ALIGN:
+                    switch (value.toString()) {
+                        case "center":
+                            setGravity(Gravity.CENTER);
+                            break;
+                        case "left":
+                            setGravity(Gravity.START);
+                            break;
+                        case "right":
+                            setGravity(Gravity.END);
+                            break;
+                    }
+                    return true;
+
+                default:
+                    return false;
+            }
+        } catch (ParametersUtils.ParametersParseException e) {
+            e.printStackTrace();
+            return true;
+        }
+    }
+
+    /**
+     * @return the text styles set, null if there is none. The shared one is returned as it is.
+     */
+    @Nullable
+    public TextAppearance getTextAppearance() {
+        if (mTextAppearance != null) {
+            return mTextAppearance;
+        }
+
+        int textFlags = mFlags >>> TEXT_SHIFT;
+        if (textFlags == 0) {
+            return null;
+        }
+
+        return TextAppearance.of(textFlags, mTextSizeUnit, mTextSize, mTextColor, mBold,
+                mItalic, mLineSpacingExtra, mLineSpacingMultiplier, mGravity);
+    }
+
+    /**
+     * Apply all the resolved styles to view, then reset. Properties never set keep the value
+     * the view already has, such as the one set by default style.
+     */
+    public void commit(View v) {
+        if ((mFlags & PADDING) != 0) {
+            v.setPadding(has(PADDING_LEFT) ? mPaddingLeft : v.getPaddingLeft(), has(PADDING_TOP)
+                    ? mPaddingTop : v.getPaddingTop(), has(PADDING_RIGHT) ? mPaddingRight : v
+                    .getPaddingRight(), has(PADDING_BOTTOM) ? mPaddingBottom : v
+                    .getPaddingBottom());
+        }
+
+        if (v instanceof TextView) {
+            commitText((TextView) v);
+        }
+
+        mFlags = 0;
+        mTextAppearance = null;
+    }
+
+    private void commitText(TextView textView) {
+        TextAppearance appearance = getTextAppearance();
+        if (appearance == null) {
+            return;
+        }
+
+        if (textView instanceof HNText) {
+            ((HNText) textView).setHtmlTextAppearance(appearance);
+        } else {
+            appearance.applyTo(textView);
+        }
+    }
+
+    /**
+     * Copy the shared TextAppearance into the fields before one of its styles is changed.
+     */
+    private void unshare() {
+        if (mTextAppearance != null) {
+            TextAppearance shared = mTextAppearance;
+            mTextAppearance = null;
+            shared.copyTo(this);
+        }
+    }
+
+    private boolean has(int flag) {
+        return (mFlags & flag) != 0;
+    }
+}
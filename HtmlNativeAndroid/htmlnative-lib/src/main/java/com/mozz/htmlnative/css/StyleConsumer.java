@@ -0,0 +1,14 @@
+package com.mozz.htmlnative.css;
+
+import com.mozz.htmlnative.exception.AttrApplyException;
+
+/**
+ * Visitor of style declarations. Used to walk through {@link AttrsSet} and
+ * {@link com.mozz.htmlnative.InheritedStyle} without allocating an entry for each one.
+ *
+ * @author Yang Tao, 17/7/22.
+ */
+
+public interface StyleConsumer {
+    void accept(String styleName, Object style) throws AttrApplyException;
+}
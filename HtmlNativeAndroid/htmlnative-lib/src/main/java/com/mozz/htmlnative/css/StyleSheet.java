@@ -1,5 +1,7 @@
 package com.mozz.htmlnative.css;
 
+import android.support.annotation.NonNull;
+
 import com.mozz.htmlnative.css.selector.AnySelector;
 import com.mozz.htmlnative.css.selector.ClassSelector;
 import com.mozz.htmlnative.css.selector.CssSelector;
@@ -7,6 +9,7 @@ import com.mozz.htmlnative.css.selector.IdSelector;
 import com.mozz.htmlnative.css.selector.TypeSelector;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -31,6 +34,26 @@ public final class StyleSheet extends AttrsSet {
 
     private int mInsertOrderSave = 0;
 
+    /**
+     * StyleSheets linked by {@code <link rel="stylesheet">}, applied before this one in link order.
+     */
+    private List<StyleSheet> mImports;
+
+    /**
+     * A sealed StyleSheet is shared across segments and can not be modified any more.
+     */
+    private boolean mSealed = false;
+
+    /**
+     * types matched by a selector part other than the tail, such as div in {@code div p}
+     */
+    private Set<String> mAncestorTypes;
+
+    /**
+     * whether any selector has {@code *} in a part other than the tail, or a child combinator
+     */
+    private boolean mHasAnyAncestor = false;
+
     public StyleSheet() {
         super("StyleSheet");
 
@@ -41,7 +64,83 @@ public final class StyleSheet extends AttrsSet {
     }
 
     public void putSelector(CssSelector cssSelector) {
+        checkNotSealed();
         putSingleSelector(cssSelector.tail());
+
+        for (CssSelector part = cssSelector; part != cssSelector.tail(); part = part.nextChild()) {
+            if (part.matchDirectChild() || part.getClass().equals(AnySelector.class)) {
+                mHasAnyAncestor = true;
+            } else if (part.getClass().equals(TypeSelector.class)) {
+                if (mAncestorTypes == null) {
+                    mAncestorTypes = new HashSet<>();
+                }
+                mAncestorTypes.add(((TypeSelector) part).getName());
+            }
+        }
+    }
+
+    /**
+     * Whether removing an element of type, which has neither id nor class, from its place in the
+     * tree may change what the selectors of this StyleSheet match, that is, a selector may match
+     * it as an ancestor, or a selector relies on direct parent. Linked StyleSheets are not
+     * checked.
+     */
+    public boolean isAncestorStyled(String type) {
+        return mHasAnyAncestor || (mAncestorTypes != null && mAncestorTypes.contains(type));
+    }
+
+    @Override
+    public void put(@NonNull AttrsOwner tree, String paramsKey, @NonNull Object value) {
+        checkNotSealed();
+        super.put(tree, paramsKey, value);
+    }
+
+    @Override
+    public void replace(@NonNull AttrsOwner tree, String paramsKey, @NonNull Object value) {
+        checkNotSealed();
+        super.replace(tree, paramsKey, value);
+    }
+
+    @Override
+    public void register(@NonNull AttrsOwner tree) {
+        checkNotSealed();
+        super.register(tree);
+    }
+
+    public void addImport(@NonNull StyleSheet styleSheet) {
+        checkNotSealed();
+        if (mImports == null) {
+            mImports = new ArrayList<>();
+        }
+        mImports.add(styleSheet);
+    }
+
+    /**
+     * @return StyleSheets linked to this one, empty if there is none.
+     */
+    @NonNull
+    public List<StyleSheet> getImports() {
+        if (mImports == null) {
+            return Collections.emptyList();
+        }
+        return mImports;
+    }
+
+    /**
+     * Make this StyleSheet read-only, so that it can be shared between segments safely.
+     */
+    public void seal() {
+        mSealed = true;
+    }
+
+    public boolean isSealed() {
+        return mSealed;
+    }
+
+    private void checkNotSealed() {
+        if (mSealed) {
+            throw new IllegalStateException("StyleSheet is shared and read-only.");
+        }
     }
 
     private void putSingleSelector(CssSelector cssSelector) {
@@ -0,0 +1,78 @@
+package com.mozz.htmlnative.css;
+
+import android.support.annotation.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global symbol table of style names. Each style name is interned once and then referenced by
+ * an int id, so that {@link AttrsSet} can store keys in an int array and compare them by value.
+ *
+ * @author Yang Tao, 17/7/23.
+ */
+
+public final class StyleSymbols {
+
+    public static final int NO_SYMBOL = -1;
+
+    private StyleSymbols() {
+    }
+
+    private static final Object sLock = new Object();
+
+    /**
+     * Written under sLock, but read without locking, as lookup happens for every declaration.
+     */
+    private static final Map<String, Integer> sIds = new ConcurrentHashMap<>();
+
+    /**
+     * Names indexed by id. A new array is published when growing, so reading it is lock free.
+     */
+    private static volatile String[] sNames = new String[64];
+
+    private static int sCount = 0;
+
+    /**
+     * @return id of the style name, a new one will be created if name has not been seen before.
+     */
+    public static int intern(@NonNull String name) {
+        synchronized (sLock) {
+            Integer id = sIds.get(name);
+            if (id != null) {
+                return id;
+            }
+
+            String[] names = sNames;
+            if (sCount == names.length) {
+                String[] grown = new String[names.length << 1];
+                System.arraycopy(names, 0, grown, 0, names.length);
+                names = grown;
+            }
+
+            int newId = sCount++;
+            names[newId] = name;
+
+            // publish the name before the id, so nameOf never misses an id found by lookup
+            sNames = names;
+            sIds.put(name, newId);
+            return newId;
+        }
+    }
+
+    /**
+     * @return id of the style name, or {@link #NO_SYMBOL} if it has never been interned.
+     */
+    public static int lookup(String name) {
+        if (name == null) {
+            return NO_SYMBOL;
+        }
+
+        Integer id = sIds.get(name);
+        return id == null ? NO_SYMBOL : id;
+    }
+
+    public static String nameOf(int id) {
+        return sNames[id];
+    }
+}
@@ -10,15 +10,15 @@ import android.text.TextUtils;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.AbsoluteLayout;
+import android.widget.TextView;
 
 import com.mozz.htmlnative.HNLog;
 import com.mozz.htmlnative.HNSandBoxContext;
 import com.mozz.htmlnative.HNativeEngine;
-import com.mozz.htmlnative.InheritStyleStack;
+import com.mozz.htmlnative.InheritedStyle;
 import com.mozz.htmlnative.common.PixelValue;
 import com.mozz.htmlnative.css.stylehandler.LayoutStyleHandler;
 import com.mozz.htmlnative.css.stylehandler.StyleHandler;
-import com.mozz.htmlnative.css.stylehandler.StyleHelper;
 import com.mozz.htmlnative.dom.DomElement;
 import com.mozz.htmlnative.exception.AttrApplyException;
 import com.mozz.htmlnative.utils.ParametersUtils;
@@ -28,8 +28,6 @@ import com.mozz.htmlnative.view.HNDivLayout;
 import com.mozz.htmlnative.view.IBackgroundView;
 import com.mozz.htmlnative.view.LayoutParamsCreator;
 
-import java.util.Iterator;
-
 /**
  * @author Yang Tao, 17/3/30.
  */
@@ -111,15 +109,15 @@ public final class Styles {
                                         View v, DomElement domElement, @NonNull LayoutParamsCreator layoutCreator, @NonNull
                                                 ViewGroup parent, StyleHandler viewStyleHandler,
                                         StyleHandler extraStyleHandler, LayoutStyleHandler
-                                                parentAttr, StyleEntry entry, InheritStyleStack
-                                                outStack) throws AttrApplyException {
+                                                parentAttr, StyleEntry entry, InheritedStyle
+                                                outStyle) throws AttrApplyException {
         applySingleStyle(context, sandBoxContext, v, domElement, layoutCreator, parent,
                 viewStyleHandler, extraStyleHandler, parentAttr, entry.getStyleName(), entry
-                        .getStyle(), outStack);
+                        .getStyle(), outStyle);
     }
 
     /**
-     * Apply a params with value to a view
+     * Apply a params with value to a view, the style takes effect immediately.
      *
      * @param context        {@link Context}
      * @param sandBoxContext {@link HNSandBoxContext}
@@ -134,8 +132,28 @@ public final class Styles {
     public static void applySingleStyle(@NonNull Context context, @NonNull final HNSandBoxContext
             sandBoxContext, @NonNull View v, @Nullable DomElement domElement, @NonNull LayoutParamsCreator layoutCreator, @NonNull ViewGroup parent, StyleHandler
             viewStyleHandler, StyleHandler extraStyleHandler, LayoutStyleHandler parentAttr,
-                                        String styleName, final Object style, InheritStyleStack
-                                                outStack) throws AttrApplyException {
+                                        String styleName, final Object style, InheritedStyle
+                                                outStyle) throws AttrApplyException {
+        ComputedStyle computedStyle = new ComputedStyle();
+        applySingleStyle(context, sandBoxContext, v, domElement, layoutCreator, parent,
+                viewStyleHandler, extraStyleHandler, parentAttr, computedStyle, styleName,
+                style, outStyle);
+        computedStyle.commit(v);
+    }
+
+    /**
+     * Same as {@link #applySingleStyle(Context, HNSandBoxContext, View, DomElement,
+     * LayoutParamsCreator, ViewGroup, StyleHandler, StyleHandler, LayoutStyleHandler, String,
+     * Object, InheritedStyle)}, but styles like padding and text are resolved into
+     * computedStyle, and will not take effect until {@link ComputedStyle#commit(View)}.
+     */
+    public static void applySingleStyle(@NonNull Context context, @NonNull final HNSandBoxContext
+            sandBoxContext, @NonNull View v, @Nullable DomElement domElement, @NonNull
+            LayoutParamsCreator layoutCreator, @NonNull ViewGroup parent, StyleHandler
+            viewStyleHandler, StyleHandler extraStyleHandler, LayoutStyleHandler parentAttr,
+                                        @NonNull ComputedStyle computedStyle, String styleName,
+                                        final Object style, InheritedStyle outStyle) throws
+            AttrApplyException {
 
         if (styleName == null || style == null) {
             return;
@@ -286,7 +304,7 @@ public final class Styles {
                         right = (int) pixelValues[1].getPxValue();
                     }
                     if (top != -1 && bottom != -1 && left != -1 && right != -1) {
-                        v.setPadding(left, top, right, bottom);
+                        computedStyle.setPadding(left, top, right, bottom);
                     }
                 } catch (ParametersUtils.ParametersParseException e) {
                     e.printStackTrace();
@@ -306,7 +324,7 @@ public final class Styles {
             case ATTR_PADDING_LEFT:
                 try {
                     int paddingLeft = (int) ParametersUtils.toPixel(style).getPxValue();
-                    StyleHelper.setLeftPadding(v, paddingLeft);
+                    computedStyle.setPaddingLeft(paddingLeft);
                 } catch (ParametersUtils.ParametersParseException e) {
                     e.printStackTrace();
                 }
@@ -316,7 +334,7 @@ public final class Styles {
             case ATTR_PADDING_RIGHT:
                 try {
                     int paddingRight = (int) ParametersUtils.toPixel(style).getPxValue();
-                    StyleHelper.setRightPadding(v, paddingRight);
+                    computedStyle.setPaddingRight(paddingRight);
                 } catch (ParametersUtils.ParametersParseException e) {
                     e.printStackTrace();
                 }
@@ -325,7 +343,7 @@ public final class Styles {
             case ATTR_PADDING_TOP:
                 try {
                     int paddingTop = (int) ParametersUtils.toPixel(style).getPxValue();
-                    StyleHelper.setTopPadding(v, paddingTop);
+                    computedStyle.setPaddingTop(paddingTop);
                 } catch (ParametersUtils.ParametersParseException e) {
                     e.printStackTrace();
                 }
@@ -334,7 +352,7 @@ public final class Styles {
             case ATTR_PADDING_BOTTOM:
                 try {
                     int paddingBottom = (int) ParametersUtils.toPixel(style).getPxValue();
-                    StyleHelper.setBottomPadding(v, paddingBottom);
+                    computedStyle.setPaddingBottom(paddingBottom);
                 } catch (ParametersUtils.ParametersParseException e) {
                     e.printStackTrace();
                 }
@@ -432,29 +450,31 @@ public final class Styles {
                 // 1. apply the corresponding view attr first;
                 // 2. apply the extra attr
                 // 3. use parent view attr to this
+                // Each handler only receives the styles it owns.
+                int symbol = StyleSymbols.lookup(styleName);
 
-                if (viewStyleHandler != null) {
+                if (viewStyleHandler != null && viewStyleHandler.handles(symbol)) {
                     viewStyleHandler.apply(context, v, domElement, parent, layoutCreator,
-                            styleName, style);
+                            computedStyle, styleName, style);
                 }
 
                 // If there extra attr is set, then should be applied also.
-                if (extraStyleHandler != null) {
+                if (extraStyleHandler != null && extraStyleHandler.handles(symbol)) {
                     extraStyleHandler.apply(context, v, domElement, parent, layoutCreator,
-                            styleName, style);
+                            computedStyle, styleName, style);
                 }
 
                 // finally apply corresponding parent attr to child
-                if (parentAttr != null) {
+                if (parentAttr != null && parentAttr.handlesChild(symbol)) {
                     parentAttr.applyToChild(context, v, domElement, parent, layoutCreator,
                             styleName, style);
                 }
                 break;
         }
 
-        // Put inherit style into stack
-        if (outStack != null && InheritStylesRegistry.isInherit(styleName)) {
-            outStack.newStyle(styleName, style);
+        // Put inherit style into the snapshot of this node
+        if (outStyle != null && InheritStylesRegistry.isInherit(styleName)) {
+            outStyle.put(styleName, style);
         }
     }
 
@@ -492,25 +512,37 @@ public final class Styles {
      *                          when add this view to parent
      * @param viewStyleHandler
      * @param extraStyleHandler
-     * @param parentAttrHandler @throws AttrApplyException
+     * @param parentAttrHandler
+     * @param computedStyle     {@link ComputedStyle}, collecting the styles to be committed
+     *                          after all the styles of element are applied
+     * @throws AttrApplyException
      */
-    public static void applyStyles(Context context, @NonNull final HNSandBoxContext
-            sandBoxContext, AttrsSet source, View v, @NonNull AttrsSet.AttrsOwner tree,
-                                   DomElement domElement, @NonNull ViewGroup parent, @NonNull LayoutParamsCreator paramsLazyCreator,
-                                   StyleHandler viewStyleHandler, StyleHandler extraStyleHandler,
-                                   LayoutStyleHandler parentAttrHandler, InheritStyleStack stack)
+    public static void applyStyles(final Context context, @NonNull final HNSandBoxContext
+            sandBoxContext, AttrsSet source, final View v, @NonNull AttrsSet.AttrsOwner tree,
+                                   final DomElement domElement, @NonNull final ViewGroup parent,
+                                   @NonNull final LayoutParamsCreator paramsLazyCreator, final
+                                   StyleHandler viewStyleHandler, final StyleHandler
+                                           extraStyleHandler, final LayoutStyleHandler
+                                           parentAttrHandler, @NonNull final ComputedStyle
+                                           computedStyle, final InheritedStyle outStyle)
             throws AttrApplyException {
+        // text styles of tree are resolved once by source, and shared by all the TextViews
+        final boolean textView = v instanceof TextView;
+        if (textView) {
+            computedStyle.setTextAppearance(source.getTextAppearance(tree));
+        }
+
         // Apply the default attr to view first;
         // Then process each parameter.
-        Iterator<StyleEntry> itr = source.iterator(tree);
-        while (itr.hasNext()) {
-            StyleEntry styleEntry = itr.next();
-
-            applySingleStyle(context, sandBoxContext, v, domElement, paramsLazyCreator, parent,
-                    viewStyleHandler, extraStyleHandler, parentAttrHandler, styleEntry
-                            .getStyleName(), styleEntry.getStyle(), stack);
-
-        }
+        source.forEach(tree, new StyleConsumer() {
+            @Override
+            public void accept(String styleName, Object style) throws AttrApplyException {
+                applySingleStyle(context, sandBoxContext, v, domElement, paramsLazyCreator,
+                        parent, textView && TextAppearance.isTextStyle(styleName) ? null :
+                                viewStyleHandler, extraStyleHandler, parentAttrHandler,
+                        computedStyle, styleName, style, outStyle);
+            }
+        });
     }
 
     public static Object getStyle(View v, String styleName, StyleHandler styleHandler,
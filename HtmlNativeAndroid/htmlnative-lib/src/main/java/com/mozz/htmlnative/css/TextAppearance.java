@@ -0,0 +1,218 @@
+package com.mozz.htmlnative.css;
+
+import android.graphics.Typeface;
+import android.support.annotation.NonNull;
+import android.widget.TextView;
+
+/**
+ * Immutable text styles of an element, including size, color, typeface, line spacing and gravity,
+ * applied to TextView in one pass. TextAppearances are compared by value, so a
+ * {@link com.mozz.htmlnative.view.HNText} can skip applying an appearance equal to the one it
+ * already has.
+ * <p>
+ * The text styles of a set of declarations are resolved into one TextAppearance ahead, such as
+ * the ones of a selector by {@link AttrsSet#getTextAppearance(AttrsSet.AttrsOwner)}, and the
+ * instance is shared by all the elements using them, see
+ * {@link ComputedStyle#setTextAppearance(TextAppearance)}.
+ *
+ * @author Yang Tao, 17/7/29.
+ */
+
+public final class TextAppearance {
+
+    public static final String STYLE_COLOR = "color";
+    public static final String STYLE_FONT_SIZE = "font-size";
+    public static final String STYLE_LINE_HEIGHT = "getLine-height";
+    public static final String STYLE_FONT_WEIGHT = "font-weight";
+    public static final String STYLE_FONT_STYLE = "font-style";
+    public static final String STYLE_TEXT_ALIGN = "text-align";
+
+    /**
+     * no text style set
+     */
+    public static final TextAppearance EMPTY = new TextAppearance(0, 0, 0, 0, false, false, 0,
+            0, 0);
+
+    static final int TEXT_SIZE = 1;
+    static final int TEXT_COLOR = 1 << 1;
+    static final int FONT_WEIGHT = 1 << 2;
+    static final int FONT_STYLE = 1 << 3;
+    static final int LINE_SPACING = 1 << 4;
+    static final int GRAVITY = 1 << 5;
+
+    /**
+     * which of the styles are set, styles not set keep the value of the view.
+     */
+    private final int mFlags;
+
+    private final int mTextSizeUnit;
+    private final float mTextSize;
+    private final int mTextColor;
+    private final boolean mBold;
+    private final boolean mItalic;
+    private final float mLineSpacingExtra;
+    private final float mLineSpacingMultiplier;
+    private final int mGravity;
+
+    private final int mHash;
+
+    private TextAppearance(int flags, int textSizeUnit, float textSize, int textColor, boolean
+            bold, boolean italic, float lineSpacingExtra, float lineSpacingMultiplier, int
+                                   gravity) {
+        mFlags = flags;
+
+        // reset the styles not set, so that they do not matter when comparing
+        mTextSizeUnit = (flags & TEXT_SIZE) != 0 ? textSizeUnit : 0;
+        mTextSize = (flags & TEXT_SIZE) != 0 ? textSize : 0;
+        mTextColor = (flags & TEXT_COLOR) != 0 ? textColor : 0;
+        mBold = (flags & FONT_WEIGHT) != 0 && bold;
+        mItalic = (flags & FONT_STYLE) != 0 && italic;
+        mLineSpacingExtra = (flags & LINE_SPACING) != 0 ? lineSpacingExtra : 0;
+        mLineSpacingMultiplier = (flags & LINE_SPACING) != 0 ? lineSpacingMultiplier : 0;
+        mGravity = (flags & GRAVITY) != 0 ? gravity : 0;
+
+        int h = mFlags;
+        h = 31 * h + mTextSizeUnit;
+        h = 31 * h + Float.floatToIntBits(mTextSize);
+        h = 31 * h + mTextColor;
+        h = 31 * h + (mBold ? 1 : 0);
+        h = 31 * h + (mItalic ? 1 : 0);
+        h = 31 * h + Float.floatToIntBits(mLineSpacingExtra);
+        h = 31 * h + Float.floatToIntBits(mLineSpacingMultiplier);
+        h = 31 * h + mGravity;
+        mHash = h;
+    }
+
+    @NonNull
+    static TextAppearance of(int flags, int textSizeUnit, float textSize, int textColor, boolean
+            bold, boolean italic, float lineSpacingExtra, float lineSpacingMultiplier, int
+            gravity) {
+        return new TextAppearance(flags, textSizeUnit, textSize, textColor, bold, italic,
+                lineSpacingExtra, lineSpacingMultiplier, gravity);
+    }
+
+    /**
+     * @return whether styleName is one of the styles resolved into a TextAppearance
+     */
+    public static boolean isTextStyle(String styleName) {
+        if (styleName == null) {
+            return false;
+        }
+
+        switch (styleName) {
+            case STYLE_COLOR:
+            case STYLE_FONT_SIZE:
+            case STYLE_LINE_HEIGHT:
+            case STYLE_FONT_WEIGHT:
+            case STYLE_FONT_STYLE:
+            case STYLE_TEXT_ALIGN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isEmpty() {
+        return mFlags == 0;
+    }
+
+    /**
+     * Set the styles set in this one to computedStyle, the others of computedStyle are kept.
+     */
+    void copyTo(@NonNull ComputedStyle computedStyle) {
+        if ((mFlags & TEXT_SIZE) != 0) {
+            computedStyle.setTextSize(mTextSizeUnit, mTextSize);
+        }
+        if ((mFlags & TEXT_COLOR) != 0) {
+            computedStyle.setTextColor(mTextColor);
+        }
+        if ((mFlags & FONT_WEIGHT) != 0) {
+            computedStyle.setBold(mBold);
+        }
+        if ((mFlags & FONT_STYLE) != 0) {
+            computedStyle.setItalic(mItalic);
+        }
+        if ((mFlags & LINE_SPACING) != 0) {
+            computedStyle.setLineSpacing(mLineSpacingExtra, mLineSpacingMultiplier);
+        }
+        if ((mFlags & GRAVITY) != 0) {
+            computedStyle.setGravity(mGravity);
+        }
+    }
+
+    /**
+     * Apply all the styles set to textView in one pass.
+     */
+    public void applyTo(@NonNull TextView textView) {
+        if ((mFlags & TEXT_SIZE) != 0) {
+            textView.setTextSize(mTextSizeUnit, mTextSize);
+        }
+
+        if ((mFlags & TEXT_COLOR) != 0) {
+            textView.setTextColor(mTextColor);
+        }
+
+        if ((mFlags & (FONT_WEIGHT | FONT_STYLE)) != 0) {
+            boolean bold = mBold;
+            boolean italic = mItalic;
+
+            // only one of them is set, keep the other one of view
+            if ((mFlags & (FONT_WEIGHT | FONT_STYLE)) != (FONT_WEIGHT | FONT_STYLE)) {
+                Typeface typeface = textView.getTypeface();
+                int current = typeface == null ? Typeface.NORMAL : typeface.getStyle();
+                if ((mFlags & FONT_WEIGHT) == 0) {
+                    bold = (current & Typeface.BOLD) != 0;
+                } else {
+                    italic = (current & Typeface.ITALIC) != 0;
+                }
+            }
+
+            int style = Typeface.NORMAL;
+            if (bold) {
+                style |= Typeface.BOLD;
+            }
+            if (italic) {
+                style |= Typeface.ITALIC;
+            }
+            textView.setTypeface(Typeface.DEFAULT, style);
+        }
+
+        if ((mFlags & LINE_SPACING) != 0) {
+            textView.setLineSpacing(mLineSpacingExtra, mLineSpacingMultiplier);
+        }
+
+        if ((mFlags & GRAVITY) != 0) {
+            textView.setGravity(mGravity);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TextAppearance)) {
+            return false;
+        }
+
+        TextAppearance that = (TextAppearance) o;
+        return mHash == that.mHash && mFlags == that.mFlags && mTextSizeUnit == that
+                .mTextSizeUnit && Float.compare(mTextSize, that.mTextSize) == 0 && mTextColor
+                == that.mTextColor && mBold == that.mBold && mItalic == that.mItalic && Float
+                .compare(mLineSpacingExtra, that.mLineSpacingExtra) == 0 && Float.compare
+                (mLineSpacingMultiplier, that.mLineSpacingMultiplier) == 0 && mGravity == that
+                .mGravity;
+    }
+
+    @Override
+    public int hashCode() {
+        return mHash;
+    }
+
+    @Override
+    public String toString() {
+        return "TextAppearance{flags=" + mFlags + ", size=" + mTextSize + ", color=" +
+                Integer.toHexString(mTextColor) + ", bold=" + mBold + ", italic=" + mItalic +
+                ", gravity=" + mGravity + "}";
+    }
+}
@@ -12,6 +12,10 @@ import com.mozz.htmlnative.view.HNDivLayout;
 import com.mozz.htmlnative.view.LayoutParamsCreator;
 
 class DivLayoutStyleHandler extends StyleHandler {
+
+    // getStyleNames() is not overridden, since div saves every inherit style for children,
+    // including the ones registered by HNViewType.
+
     @Override
     public void apply(Context context, View v, DomElement domElement, View parent,
                       LayoutParamsCreator paramsCreator, String params, Object value)
@@ -15,6 +15,15 @@ import com.mozz.htmlnative.view.LayoutParamsCreator;
  */
 
 class FlexBoxLayoutStyleHandler extends LayoutStyleHandler {
+
+    private static final String[] STYLE_NAMES = {"flex-direction", "flex-wrap",
+            "justify-content"};
+
+    /**
+     * no style is applied to the children yet
+     */
+    private static final String[] CHILD_STYLE_NAMES = {};
+
     @Override
     public void apply(Context context, View v, DomElement domElement, View parent,
                       LayoutParamsCreator paramsCreator, String params, Object value)
@@ -54,6 +63,16 @@ class FlexBoxLayoutStyleHandler extends LayoutStyleHandler {
         paramsCreator.width = ViewGroup.LayoutParams.MATCH_PARENT;
     }
 
+    @Override
+    protected String[] getStyleNames() {
+        return STYLE_NAMES;
+    }
+
+    @Override
+    protected String[] getChildStyleNames() {
+        return CHILD_STYLE_NAMES;
+    }
+
     @FlexboxLayout.FlexDirection
     private static int flexDirection(@NonNull java.lang.String direction) {
         switch (direction) {
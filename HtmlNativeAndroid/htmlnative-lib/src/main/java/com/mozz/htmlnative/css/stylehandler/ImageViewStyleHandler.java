@@ -15,6 +15,8 @@ import com.mozz.htmlnative.view.LayoutParamsCreator;
 
 class ImageViewStyleHandler extends StyleHandler {
 
+    private static final String[] STYLE_NAMES = {"src"};
+
     static {
         // to protect the build-in styles
         InheritStylesRegistry.preserve("src");
@@ -47,4 +49,9 @@ class ImageViewStyleHandler extends StyleHandler {
 
         paramsCreator.width = ViewGroup.LayoutParams.MATCH_PARENT;
     }
+
+    @Override
+    protected String[] getStyleNames() {
+        return STYLE_NAMES;
+    }
 }
@@ -1,6 +1,7 @@
 package com.mozz.htmlnative.css.stylehandler;
 
 import android.content.Context;
+import android.support.annotation.Nullable;
 import android.view.View;
 
 import com.mozz.htmlnative.dom.DomElement;
@@ -12,6 +13,9 @@ import com.mozz.htmlnative.view.LayoutParamsCreator;
  */
 
 public abstract class LayoutStyleHandler extends StyleHandler {
+
+    private volatile OwnedStyles mOwnedChildStyles;
+
     public abstract void applyToChild(Context context, View v, DomElement domElement, View
             parent, LayoutParamsCreator paramsCreator, String params, Object value) throws
             AttrApplyException;
@@ -20,4 +24,21 @@ public abstract class LayoutStyleHandler extends StyleHandler {
                                   LayoutParamsCreator paramsCreator) throws AttrApplyException {
 
     }
+
+    /**
+     * Names of the styles this handler applies to its children, null means all of them.
+     */
+    @Nullable
+    protected String[] getChildStyleNames() {
+        return null;
+    }
+
+    public final boolean handlesChild(int symbol) {
+        OwnedStyles ownedStyles = mOwnedChildStyles;
+        if (ownedStyles == null) {
+            ownedStyles = OwnedStyles.compile(getChildStyleNames());
+            mOwnedChildStyles = ownedStyles;
+        }
+        return ownedStyles.contains(symbol);
+    }
 }
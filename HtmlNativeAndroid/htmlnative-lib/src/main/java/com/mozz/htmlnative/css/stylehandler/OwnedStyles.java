@@ -0,0 +1,55 @@
+package com.mozz.htmlnative.css.stylehandler;
+
+import android.support.annotation.Nullable;
+
+import com.mozz.htmlnative.css.StyleSymbols;
+
+/**
+ * Styles owned by a {@link StyleHandler}, compiled into a table indexed by {@link StyleSymbols}
+ * id, so that routing a declaration to its handler is an array access.
+ *
+ * @author Yang Tao, 17/7/26.
+ */
+
+final class OwnedStyles {
+
+    /**
+     * Used when handler does not declare its styles, it will receive every style.
+     */
+    static final OwnedStyles ALL = new OwnedStyles(null);
+
+    @Nullable
+    private final boolean[] mTable;
+
+    private OwnedStyles(@Nullable boolean[] table) {
+        mTable = table;
+    }
+
+    static OwnedStyles compile(@Nullable String[] styleNames) {
+        if (styleNames == null) {
+            return ALL;
+        }
+
+        int[] symbols = new int[styleNames.length];
+        int max = -1;
+        for (int i = 0; i < styleNames.length; i++) {
+            symbols[i] = StyleSymbols.intern(styleNames[i]);
+            max = Math.max(max, symbols[i]);
+        }
+
+        boolean[] table = new boolean[max + 1];
+        for (int symbol : symbols) {
+            table[symbol] = true;
+        }
+        return new OwnedStyles(table);
+    }
+
+    boolean contains(int symbol) {
+        if (mTable == null) {
+            return true;
+        }
+
+        // symbols interned after compiling are never declared by the handler
+        return symbol >= 0 && symbol < mTable.length && mTable[symbol];
+    }
+}
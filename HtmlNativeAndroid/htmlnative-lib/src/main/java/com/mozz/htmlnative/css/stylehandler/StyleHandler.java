@@ -3,6 +3,9 @@ package com.mozz.htmlnative.css.stylehandler;
 import android.content.Context;
 import android.view.View;
 
+import android.support.annotation.Nullable;
+
+import com.mozz.htmlnative.css.ComputedStyle;
 import com.mozz.htmlnative.dom.DomElement;
 import com.mozz.htmlnative.exception.AttrApplyException;
 import com.mozz.htmlnative.view.LayoutParamsCreator;
@@ -12,10 +15,25 @@ import com.mozz.htmlnative.view.LayoutParamsCreator;
  */
 
 public abstract class StyleHandler {
+
+    private volatile OwnedStyles mOwnedStyles;
+
     public abstract void apply(Context context, View v, DomElement domElement, View parent,
                                LayoutParamsCreator paramsCreator, String params, Object
                                        value) throws AttrApplyException;
 
+    /**
+     * Apply the style while the element is being rendered. Handlers can resolve the styles into
+     * computedStyle, which will be committed to view once all the styles of element are applied.
+     * By default this is the same as {@link #apply(Context, View, DomElement, View,
+     * LayoutParamsCreator, String, Object)}.
+     */
+    public void apply(Context context, View v, DomElement domElement, View parent,
+                      LayoutParamsCreator paramsCreator, ComputedStyle computedStyle, String
+                              params, Object value) throws AttrApplyException {
+        apply(context, v, domElement, parent, paramsCreator, params, value);
+    }
+
     public void setDefault(Context context, View v, DomElement domElement,
                            LayoutParamsCreator paramsCreator, View parent) throws
             AttrApplyException {
@@ -25,4 +43,26 @@ public abstract class StyleHandler {
     public Object getStyle(View v, String styleName) {
         return null;
     }
+
+    /**
+     * Names of the styles this handler can apply. Styles not listed here will never be passed
+     * to {@link #apply}. Return null to receive all the styles that are not common ones.
+     */
+    @Nullable
+    protected String[] getStyleNames() {
+        return null;
+    }
+
+    /**
+     * @param symbol {@link com.mozz.htmlnative.css.StyleSymbols} id of style
+     * @return whether the style should be dispatched to this handler
+     */
+    public final boolean handles(int symbol) {
+        OwnedStyles ownedStyles = mOwnedStyles;
+        if (ownedStyles == null) {
+            ownedStyles = OwnedStyles.compile(getStyleNames());
+            mOwnedStyles = ownedStyles;
+        }
+        return ownedStyles.contains(symbol);
+    }
 }
@@ -12,8 +12,10 @@ import android.widget.TextView;
 import com.google.android.flexbox.FlexboxLayout;
 import com.mozz.htmlnative.view.HNDivLayout;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Yang Tao, 17/4/17.
@@ -21,21 +23,33 @@ import java.util.Map;
 
 public final class StyleHandlerFactory {
 
-    private static TextViewStyleHandler sText = new TextViewStyleHandler();
-    private static ImageViewStyleHandler sImage = new ImageViewStyleHandler();
-    private static DivLayoutStyleHandler sDiv = new DivLayoutStyleHandler();
-    private static FlexBoxLayoutStyleHandler sFlex = new FlexBoxLayoutStyleHandler();
-    private static WebViewStyleHandler sWebview = new WebViewStyleHandler();
+    private static final TextViewStyleHandler sText = new TextViewStyleHandler();
+    private static final ImageViewStyleHandler sImage = new ImageViewStyleHandler();
+    private static final DivLayoutStyleHandler sDiv = new DivLayoutStyleHandler();
+    private static final FlexBoxLayoutStyleHandler sFlex = new FlexBoxLayoutStyleHandler();
+    private static final WebViewStyleHandler sWebview = new WebViewStyleHandler();
+
+    private static final Object sLock = new Object();
+
+    /**
+     * Extra handlers registered by user. Never modified once published, a new map is created for
+     * each change, so it can be read from any thread without locking.
+     */
     @NonNull
-    private static Map<Class<? extends View>, StyleHandler> sAttrHandlerCache = new HashMap<>();
-    private static Map<Class<? extends View>, StyleHandler> sExtraAttrHandlerCache = new
-            HashMap<>();
+    private static volatile Map<Class<? extends View>, StyleHandler> sExtraAttrHandlers =
+            Collections.emptyMap();
+
+    /**
+     * StyleHandlers resolved for each view class.
+     */
+    @NonNull
+    private static final ConcurrentHashMap<Class<? extends View>, StyleHandlers> sResolved = new
+            ConcurrentHashMap<>();
 
     private StyleHandlerFactory() {
 
     }
 
-    //TODO there is much can be done when dealing with the StyleHandler
     public static StyleHandler byClass(@NonNull Class<? extends View> clazz) {
 
         if (TextView.class.isAssignableFrom(clazz)) {
@@ -53,36 +67,45 @@ public final class StyleHandlerFactory {
         }
     }
 
-    @Nullable
-    public static StyleHandler get(View view) {
-        Class<? extends View> vClazz = view.getClass();
-        StyleHandler styleHandler = sAttrHandlerCache.get(vClazz);
-        if (styleHandler == null) {
-            styleHandler = byClass(vClazz);
-            if (styleHandler != null) {
-                sAttrHandlerCache.put(vClazz, styleHandler);
-            }
+    /**
+     * Get all the StyleHandlers of a view class, which are resolved only once for each class.
+     */
+    @NonNull
+    public static StyleHandlers handlersOf(@NonNull Class<? extends View> clazz) {
+        Map<Class<? extends View>, StyleHandler> extraHandlers = sExtraAttrHandlers;
+
+        StyleHandlers handlers = sResolved.get(clazz);
+        if (handlers != null && handlers.mExtraRegistry == extraHandlers) {
+            return handlers;
         }
 
-        return styleHandler;
+        // resolved against an older registry, or not resolved yet
+        handlers = new StyleHandlers(byClass(clazz), extraHandlers.get(clazz), extraHandlers);
+        sResolved.put(clazz, handlers);
+        return handlers;
+    }
+
+    /**
+     * Get the StyleHandlers of parent, or an empty one if parent is not a view.
+     */
+    @NonNull
+    public static StyleHandlers handlersOf(@Nullable ViewParent parent) {
+        if (parent instanceof ViewGroup) {
+            return handlersOf(((View) parent).getClass());
+        }
+        return StyleHandlers.EMPTY;
+    }
 
+    @Nullable
+    public static StyleHandler get(View view) {
+        return handlersOf(view.getClass()).getViewHandler();
     }
 
     /**
      * Get styleHandler of view's parent
      */
     public static LayoutStyleHandler parentGet(View view) {
-        ViewParent parent = view.getParent();
-        if (parent instanceof ViewGroup) {
-            StyleHandler parentStyleHandler = get((View) parent);
-            LayoutStyleHandler parentLayoutAttr = null;
-            if (parentStyleHandler instanceof LayoutStyleHandler) {
-                parentLayoutAttr = (LayoutStyleHandler) parentStyleHandler;
-            }
-            return parentLayoutAttr;
-        } else {
-            return null;
-        }
+        return handlersOf(view.getParent()).getLayoutHandler();
     }
 
     /**
@@ -90,24 +113,39 @@ public final class StyleHandlerFactory {
      */
     @Nullable
     public static StyleHandler extraGet(View view) {
-        return sExtraAttrHandlerCache.get(view.getClass());
+        return sExtraAttrHandlers.get(view.getClass());
     }
 
     public static StyleHandler registerExtraStyleHandler(Class<? extends View> viewClass,
                                                          StyleHandler styleHandler) {
-        return sExtraAttrHandlerCache.put(viewClass, styleHandler);
+        synchronized (sLock) {
+            Map<Class<? extends View>, StyleHandler> handlers = new HashMap<>
+                    (sExtraAttrHandlers);
+            StyleHandler old = handlers.put(viewClass, styleHandler);
+            sExtraAttrHandlers = handlers;
+            return old;
+        }
     }
 
     public static void unregisterExtraStyleHandler(Class<? extends View> viewClass) {
-        sExtraAttrHandlerCache.remove(viewClass);
+        synchronized (sLock) {
+            if (sExtraAttrHandlers.containsKey(viewClass)) {
+                Map<Class<? extends View>, StyleHandler> handlers = new HashMap<>
+                        (sExtraAttrHandlers);
+                handlers.remove(viewClass);
+                sExtraAttrHandlers = handlers;
+            }
+        }
     }
 
     public static void clearExtraStyleHandler() {
-        sExtraAttrHandlerCache.clear();
+        synchronized (sLock) {
+            sExtraAttrHandlers = Collections.emptyMap();
+        }
     }
 
     public static void clear() {
-        sExtraAttrHandlerCache.clear();
-        sAttrHandlerCache.clear();
+        clearExtraStyleHandler();
+        sResolved.clear();
     }
 }
@@ -0,0 +1,60 @@
+package com.mozz.htmlnative.css.stylehandler;
+
+import android.support.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * StyleHandlers resolved for a view class, immutable once created, so that it can be shared
+ * between threads and cached by renderer for each parent.
+ *
+ * @author Yang Tao, 17/7/26.
+ */
+
+public final class StyleHandlers {
+
+    static final StyleHandlers EMPTY = new StyleHandlers(null, null, null);
+
+    @Nullable
+    private final StyleHandler mViewHandler;
+    @Nullable
+    private final StyleHandler mExtraHandler;
+
+    /**
+     * the extra handler registry this is resolved against, used to find out whether it is stale.
+     */
+    final Map<?, ?> mExtraRegistry;
+
+    StyleHandlers(StyleHandler viewHandler, StyleHandler extraHandler, Map<?, ?>
+            extraRegistry) {
+        mViewHandler = viewHandler;
+        mExtraHandler = extraHandler;
+        mExtraRegistry = extraRegistry;
+    }
+
+    @Nullable
+    public StyleHandler getViewHandler() {
+        return mViewHandler;
+    }
+
+    @Nullable
+    public StyleHandler getExtraHandler() {
+        return mExtraHandler;
+    }
+
+    /**
+     * @return the handler used when view of this class is parent of other views.
+     */
+    @Nullable
+    public LayoutStyleHandler getLayoutHandler() {
+        if (mViewHandler instanceof LayoutStyleHandler) {
+            return (LayoutStyleHandler) mViewHandler;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "StyleHandlers{view=" + mViewHandler + ", extra=" + mExtraHandler + "}";
+    }
+}
@@ -1,16 +1,19 @@
 package com.mozz.htmlnative.css.stylehandler;
 
 import android.content.Context;
-import android.graphics.Typeface;
+import android.text.Spanned;
 import android.text.TextUtils;
-import android.view.Gravity;
+import android.text.method.LinkMovementMethod;
+import android.text.style.ClickableSpan;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import com.mozz.htmlnative.HtmlTag;
 import com.mozz.htmlnative.common.PixelValue;
+import com.mozz.htmlnative.css.ComputedStyle;
 import com.mozz.htmlnative.css.InheritStylesRegistry;
+import com.mozz.htmlnative.css.TextAppearance;
 import com.mozz.htmlnative.dom.DomElement;
 import com.mozz.htmlnative.exception.AttrApplyException;
 import com.mozz.htmlnative.utils.ParametersUtils;
@@ -18,22 +21,25 @@ import com.mozz.htmlnative.view.LayoutParamsCreator;
 
 import static com.mozz.htmlnative.utils.ParametersUtils.dpToPx;
 import static com.mozz.htmlnative.utils.ParametersUtils.emToPx;
-import static com.mozz.htmlnative.utils.ParametersUtils.toColor;
 import static com.mozz.htmlnative.utils.ParametersUtils.toPixel;
 
 class TextViewStyleHandler extends StyleHandler {
 
-    private static final String FONT_SIZE = "font-size";
-    private static final String COLOR = "color";
+    private static final String FONT_SIZE = TextAppearance.STYLE_FONT_SIZE;
+    private static final String COLOR = TextAppearance.STYLE_COLOR;
     private static final String TEXT = "text";
-    private static final String LINE_HEIGHT = "getLine-height";
-    private static final String FONT_STYLE = "font-style";
-    private static final String FONT_WEIGHT = "font-weight";
-    private static final String TEXT_ALIGN = "text-align";
+    private static final String LINE_HEIGHT = TextAppearance.STYLE_LINE_HEIGHT;
+    private static final String FONT_STYLE = TextAppearance.STYLE_FONT_STYLE;
+    private static final String FONT_WEIGHT = TextAppearance.STYLE_FONT_WEIGHT;
+    private static final String TEXT_ALIGN = TextAppearance.STYLE_TEXT_ALIGN;
     private static final String TEXT_WORD_SPACING = "word-spacing";
     private static final String TEXT_OVER_FLOW = "text-overflow";
     private static final String TEXT_TRANSFORM = "text-transform";
 
+    private static final String[] STYLE_NAMES = {COLOR, TEXT, FONT_SIZE, LINE_HEIGHT,
+            FONT_WEIGHT, FONT_STYLE, TEXT_ALIGN, TEXT_WORD_SPACING, TEXT_OVER_FLOW,
+            TEXT_TRANSFORM};
+
     private static final int DEFAULT_SIZE = 14;
     private static final int DEFAULT_H1_SIZE = emToPx(2);
     private static final int DEFAULT_H1_PADDING = emToPx(0.67f);
@@ -74,101 +80,37 @@ class TextViewStyleHandler extends StyleHandler {
     public void apply(Context context, View v, DomElement domElement, View parent,
                       LayoutParamsCreator paramsCreator, String params, final Object
                                   value) throws AttrApplyException {
+        ComputedStyle computedStyle = new ComputedStyle();
+        apply(context, v, domElement, parent, paramsCreator, computedStyle, params, value);
+        computedStyle.commit(v);
+    }
+
+    @Override
+    public void apply(Context context, View v, DomElement domElement, View parent,
+                      LayoutParamsCreator paramsCreator, ComputedStyle computedStyle, String
+                              params, final Object value) throws AttrApplyException {
 
         final TextView textView = (TextView) v;
         switch (params) {
             case COLOR:
-                try {
-                    textView.setTextColor(toColor(value));
-                } catch (ParametersUtils.ParametersParseException e) {
-                    e.printStackTrace();
-                }
-                break;
-
-            case TEXT:
-                textView.setText(value.toString());
-                break;
-
             case FONT_SIZE:
-                try {
-                    PixelValue size;
-                    size = toPixel(value);
-                    textView.setTextSize(size.getUnit(), size.getPxValue());
-                } catch (ParametersUtils.ParametersParseException e) {
-                    e.printStackTrace();
-                }
-                break;
-
             case LINE_HEIGHT:
-                try {
-                    if (value instanceof String) {
-                        if (((String) value).endsWith("%")) {
-                            float percent = ParametersUtils.getPercent((String) value);
-                            textView.setLineSpacing(0, percent);
-                        } else {
-                            float lineHeight;
-                            lineHeight = toPixel(value).getPxValue();
-                            textView.setLineSpacing(lineHeight, 0);
-                        }
-                    }
-                } catch (ParametersUtils.ParametersParseException e) {
-                    e.printStackTrace();
-                }
-                break;
-
             case FONT_WEIGHT:
-                java.lang.String s = value.toString();
-
-                if (s.equals("bold")) {
-                    textView.setTypeface(Typeface.DEFAULT, Typeface.BOLD);
-                } else if (s.equals("normal")) {
-                    textView.setTypeface(Typeface.DEFAULT, Typeface.NORMAL);
-                }
-
-                break;
-
             case FONT_STYLE:
-                java.lang.String s2 = value.toString();
-
-                if (s2.equals("italic")) {
-                    int style = textView.getTypeface().getStyle();
-
-                    if (style == Typeface.BOLD) {
-                        style = Typeface.BOLD_ITALIC;
-                    } else {
-                        style = Typeface.ITALIC;
-                    }
-
-                    textView.setTypeface(Typeface.DEFAULT, style);
-                } else if (s2.equals("normal")) {
-                    int style = textView.getTypeface().getStyle();
-
-                    if (style == Typeface.BOLD_ITALIC) {
-                        style = Typeface.BOLD;
-                    } else {
-                        style = Typeface.NORMAL;
-                    }
-
-                    textView.setTypeface(Typeface.DEFAULT, style);
-                }
-
+            case TEXT_ALIGN:
+                computedStyle.setTextStyle(params, value);
                 break;
 
-
-            case TEXT_ALIGN:
-                java.lang.String val = value.toString();
-                switch (val) {
-                    case "center":
-                        textView.setGravity(Gravity.CENTER);
-                        break;
-                    case "left":
-                        textView.setGravity(Gravity.START);
-                        break;
-                    case "right":
-                        textView.setGravity(Gravity.END);
-                        break;
+            case TEXT:
+                if (value instanceof Spanned) {
+                    Spanned text = (Spanned) value;
+                    textView.setText(text);
+                    if (text.getSpans(0, text.length(), ClickableSpan.class).length > 0) {
+                        textView.setMovementMethod(LinkMovementMethod.getInstance());
+                    }
+                } else {
+                    textView.setText(value.toString());
                 }
-
                 break;
 
             case TEXT_WORD_SPACING: {
@@ -284,6 +226,11 @@ class TextViewStyleHandler extends StyleHandler {
         }
     }
 
+    @Override
+    protected String[] getStyleNames() {
+        return STYLE_NAMES;
+    }
+
     @Override
     public Object getStyle(View v, String styleName) {
         final TextView textView = (TextView) v;
@@ -17,6 +17,8 @@ class WebViewStyleHandler extends StyleHandler {
 
     private static final String ATTR_SRC = "src";
 
+    private static final String[] STYLE_NAMES = {ATTR_SRC};
+
     static {
         // to protect the build-in styles
         InheritStylesRegistry.preserve(ATTR_SRC);
@@ -32,4 +34,9 @@ class WebViewStyleHandler extends StyleHandler {
             webView.loadUrl(value.toString());
         }
     }
+
+    @Override
+    protected String[] getStyleNames() {
+        return STYLE_NAMES;
+    }
 }
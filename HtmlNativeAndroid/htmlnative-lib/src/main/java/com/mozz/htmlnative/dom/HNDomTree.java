@@ -5,6 +5,7 @@ import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
 import com.mozz.htmlnative.HNLog;
+import com.mozz.htmlnative.HNRenderer;
 import com.mozz.htmlnative.css.AttrsSet;
 import com.mozz.htmlnative.parser.ParseCallback;
 import com.mozz.htmlnative.utils.ParametersUtils;
@@ -59,6 +60,18 @@ public final class HNDomTree implements ParseCallback, AttrsSet.AttrsOwner, DomE
      */
     private boolean mIsInOrder = true;
 
+    /**
+     * Position in parent's inner text where this tree appears, only set when parent swallows its
+     * inner text. See {@link com.mozz.htmlnative.HtmlTag#isSwallowInnerTag(String)}
+     */
+    private int mTextOffset = -1;
+
+    /**
+     * Factory of the view of this tree, resolved once after parsing. Null if the view is not a
+     * built-in one, in which case it is looked up by type when rendering.
+     */
+    private HNRenderer.ViewFactory<?> mViewFactory;
+
     public HNDomTree(@NonNull AttrsSet inlineStyle, HNDomTree parent, int depth, int index) {
         this(inlineStyle, null, parent, depth, index);
     }
@@ -110,6 +123,18 @@ public final class HNDomTree implements ParseCallback, AttrsSet.AttrsOwner, DomE
         }
     }
 
+    public int innerLength() {
+        return mInnerText != null ? mInnerText.length() : 0;
+    }
+
+    public void setTextOffset(int textOffset) {
+        mTextOffset = textOffset;
+    }
+
+    public int getTextOffset() {
+        return mTextOffset;
+    }
+
     public void addChild(HNDomTree child) {
         if (child.mOrder != -1) {
             if (mIsInOrder) {
@@ -180,6 +205,23 @@ public final class HNDomTree implements ParseCallback, AttrsSet.AttrsOwner, DomE
         this.mType = type;
     }
 
+    @Nullable
+    public HNRenderer.ViewFactory<?> getViewFactory() {
+        return mViewFactory;
+    }
+
+    public void setViewFactory(@Nullable HNRenderer.ViewFactory<?> viewFactory) {
+        mViewFactory = viewFactory;
+    }
+
+    int getIndex() {
+        return mIndex;
+    }
+
+    AttrsSet getInlineStyles() {
+        return mInlineStyle;
+    }
+
     public int getDepth() {
         return mDepth;
     }
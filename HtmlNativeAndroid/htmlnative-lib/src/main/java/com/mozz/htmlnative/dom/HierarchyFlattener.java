@@ -0,0 +1,176 @@
+package com.mozz.htmlnative.dom;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mozz.htmlnative.HtmlTag;
+import com.mozz.htmlnative.css.StyleConsumer;
+import com.mozz.htmlnative.css.StyleSheet;
+import com.mozz.htmlnative.css.Styles;
+import com.mozz.htmlnative.css.selector.CssSelector;
+import com.mozz.htmlnative.exception.AttrApplyException;
+
+import java.util.ListIterator;
+
+/**
+ * Collapse the redundant wrappers, a {@code <div>} or {@code <span>} which has only one child
+ * and no style at all, into its child, so that the view hierarchy gets shallower.
+ * <p>
+ * A wrapper is kept if its child would be laid out differently without it, that is:
+ * <ul>
+ * <li>the parent of wrapper may not be laid out as a box, such as display:flex</li>
+ * <li>the child floats, or declares order</li>
+ * <li>the wrapper is a block {@code <div>}, while the child is not a block element, or
+ * declares width</li>
+ * </ul>
+ * Wrapper with id is always kept, so is a wrapper styled by StyleSheet, either as the element
+ * or as an ancestor in selectors like {@code div > p}. As script can walk through the tree by
+ * parentNode and childNodes, this must not be used for segment with script.
+ *
+ * @author Yang Tao, 17/8/1.
+ */
+
+public final class HierarchyFlattener {
+
+    private static final String ORDER = "order";
+
+    private static final String[] BLOCK_TAGS = {HtmlTag.DIV, HtmlTag.P, HtmlTag.H1, HtmlTag.H2,
+            HtmlTag.H3, HtmlTag.H4, HtmlTag.H5, HtmlTag.H6};
+
+    private HierarchyFlattener() {
+
+    }
+
+    public static void flatten(@NonNull HNDomTree tree, @Nullable StyleSheet styleSheet) {
+        if (tree.isLeaf()) {
+            return;
+        }
+
+        boolean isBox = getStyle(tree, Styles.ATTR_DISPLAY, styleSheet) == null;
+
+        ListIterator<HNDomTree> itr = tree.children().listIterator();
+        while (itr.hasNext()) {
+            HNDomTree child = itr.next();
+
+            if (isBox) {
+                HNDomTree collapsed = child;
+                while (isRedundantWrapper(collapsed, styleSheet)) {
+                    collapsed = collapsed.children().get(0);
+                }
+
+                if (collapsed != child) {
+                    collapsed.setParent(tree);
+                    itr.set(collapsed);
+                    child = collapsed;
+                }
+            }
+
+            flatten(child, styleSheet);
+        }
+    }
+
+    private static boolean isRedundantWrapper(HNDomTree wrapper, StyleSheet styleSheet) {
+        String type = wrapper.getType();
+        if (!HtmlTag.DIV.equals(type) && !HtmlTag.SPAN.equals(type)) {
+            return false;
+        }
+
+        if (wrapper.childrenCount() != 1 || wrapper.hasId() || wrapper.hasClazz()) {
+            return false;
+        }
+
+        // no inline style, including onclick
+        StyleRecorder recorder = new StyleRecorder();
+        try {
+            wrapper.getInlineStyles().forEach(wrapper, recorder);
+        } catch (AttrApplyException e) {
+            // recorder never throws
+            e.printStackTrace();
+        }
+        if (recorder.mHasStyle) {
+            return false;
+        }
+
+        if (InlineTextFlattener.isStyled(type, styleSheet) || isAncestorStyled(type,
+                styleSheet)) {
+            return false;
+        }
+
+        HNDomTree child = wrapper.children().get(0);
+        if (getStyle(child, Styles.ATTR_FLOAT, styleSheet) != null || child.getInlineStyles()
+                .getStyle(child, ORDER) != null) {
+            return false;
+        }
+
+        // a block wrapper takes the whole line, so its child must be a block too.
+        if (HtmlTag.DIV.equals(type)) {
+            return isBlockTag(child.getType()) && getStyle(child, Styles.ATTR_WIDTH,
+                    styleSheet) == null;
+        }
+
+        return true;
+    }
+
+    private static boolean isAncestorStyled(String type, StyleSheet styleSheet) {
+        if (styleSheet == null) {
+            return false;
+        }
+
+        for (StyleSheet linked : styleSheet.getImports()) {
+            if (isAncestorStyled(type, linked)) {
+                return true;
+            }
+        }
+        return styleSheet.isAncestorStyled(type);
+    }
+
+    private static boolean isBlockTag(String type) {
+        for (String tag : BLOCK_TAGS) {
+            if (tag.equals(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Look up the style declared for tree, in inline style first, then StyleSheet.
+     */
+    private static Object getStyle(HNDomTree tree, String styleName, StyleSheet styleSheet) {
+        Object style = tree.getInlineStyles().getStyle(tree, styleName);
+        if (style != null || styleSheet == null) {
+            return style;
+        }
+
+        for (StyleSheet linked : styleSheet.getImports()) {
+            style = getStyle(tree, styleName, linked);
+            if (style != null) {
+                return style;
+            }
+        }
+
+        for (CssSelector selector : styleSheet.matchedSelector(tree.getType(), tree.getId(),
+                tree.getClazz())) {
+            if (selector != null) {
+                style = styleSheet.getStyle(selector, styleName);
+                if (style != null) {
+                    return style;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records whether any style is declared.
+     */
+    private static final class StyleRecorder implements StyleConsumer {
+
+        boolean mHasStyle;
+
+        @Override
+        public void accept(String styleName, Object style) {
+            mHasStyle = true;
+        }
+    }
+}
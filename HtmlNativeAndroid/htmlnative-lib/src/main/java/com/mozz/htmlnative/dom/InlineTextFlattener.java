@@ -0,0 +1,300 @@
+package com.mozz.htmlnative.dom;
+
+import android.graphics.Typeface;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.style.ClickableSpan;
+import android.text.style.ForegroundColorSpan;
+import android.text.style.StyleSpan;
+import android.text.style.UnderlineSpan;
+import android.view.View;
+
+import com.mozz.htmlnative.HNativeEngine;
+import com.mozz.htmlnative.HtmlTag;
+import com.mozz.htmlnative.css.StyleConsumer;
+import com.mozz.htmlnative.css.StyleSheet;
+import com.mozz.htmlnative.css.Styles;
+import com.mozz.htmlnative.css.selector.CssSelector;
+import com.mozz.htmlnative.exception.AttrApplyException;
+import com.mozz.htmlnative.utils.ParametersUtils;
+
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Merge runs of inline text, {@code <b>}, {@code <a>} and {@code <span>} into one
+ * {@link Spanned} text, so that they are rendered by a single text view instead of one view
+ * for each run.
+ * <p>
+ * Only the elements which can be fully expressed by spans are merged, that is, no id, no class,
+ * no style matched by StyleSheet, and no inline style other than {@link #INLINE_STYLES}.
+ *
+ * @author Yang Tao, 17/7/31.
+ */
+
+public final class InlineTextFlattener {
+
+    private static final String TEXT = "text";
+    private static final String COLOR = "color";
+    private static final String FONT_WEIGHT = "font-weight";
+    private static final String FONT_STYLE = "font-style";
+
+    private static final String[] INLINE_STYLES = {TEXT, COLOR, FONT_WEIGHT, FONT_STYLE, Styles
+            .ATTR_HREF};
+
+    private InlineTextFlattener() {
+
+    }
+
+    /**
+     * Flatten the inline children of tree and all its descendants.
+     *
+     * @param styleSheet StyleSheet of the segment, a type matched by it will not be merged.
+     */
+    public static void flatten(@NonNull HNDomTree tree, @Nullable StyleSheet styleSheet) {
+        if (tree.isLeaf()) {
+            return;
+        }
+
+        List<HNDomTree> children = tree.children();
+
+        // inner text of a swallowing tree is rendered by itself, merge children into that text.
+        if (HtmlTag.isSwallowInnerTag(tree.getType())) {
+            if (areInline(children, styleSheet)) {
+                SpannableStringBuilder text = new SpannableStringBuilder();
+                appendSwallowed(text, tree);
+                children.clear();
+                tree.getInlineStyles().replace(tree, TEXT, text);
+            }
+            return;
+        }
+
+        for (HNDomTree child : children) {
+            flatten(child, styleSheet);
+        }
+
+        ListIterator<HNDomTree> itr = children.listIterator();
+        while (itr.hasNext()) {
+            HNDomTree first = itr.next();
+            if (!isInline(first, styleSheet)) {
+                continue;
+            }
+
+            int runStart = itr.previousIndex();
+            while (itr.hasNext()) {
+                if (!isInline(itr.next(), styleSheet)) {
+                    itr.previous();
+                    break;
+                }
+            }
+
+            int runEnd = itr.nextIndex();
+            if (runEnd - runStart < 2) {
+                continue;
+            }
+
+            SpannableStringBuilder text = new SpannableStringBuilder();
+            for (int i = runStart; i < runEnd; i++) {
+                itr.previous();
+            }
+            for (int i = runStart; i < runEnd; i++) {
+                append(text, itr.next());
+                itr.remove();
+            }
+
+            HNDomTree merged = new HNDomTree(tree, HtmlTag.INLINE_TEXT_TAG, first.getIndex());
+            merged.getInlineStyles().put(merged, TEXT, text);
+            itr.add(merged);
+        }
+    }
+
+    private static boolean areInline(List<HNDomTree> trees, StyleSheet styleSheet) {
+        for (HNDomTree tree : trees) {
+            if (!isInline(tree, styleSheet)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isInline(HNDomTree tree, StyleSheet styleSheet) {
+        String type = tree.getType();
+        if (!HtmlTag.INNER_TREE_TAG.equals(type) && !HtmlTag.B.equals(type) && !HtmlTag.A.equals
+                (type) && !HtmlTag.SPAN.equals(type)) {
+            return false;
+        }
+
+        if (tree.hasId() || tree.hasClazz() || isStyled(type, styleSheet)) {
+            return false;
+        }
+
+        NonInlineStyleFinder finder = new NonInlineStyleFinder();
+        try {
+            tree.getInlineStyles().forEach(tree, finder);
+        } catch (AttrApplyException e) {
+            // finder never throws
+            e.printStackTrace();
+        }
+        if (finder.mFound) {
+            return false;
+        }
+
+        for (HNDomTree child : tree.children()) {
+            if (HtmlTag.isSwallowInnerTag(type) && child.getTextOffset() < 0) {
+                return false;
+            }
+            if (!isInline(child, styleSheet)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isInlineStyle(String styleName) {
+        for (String inlineStyle : INLINE_STYLES) {
+            if (inlineStyle.equals(styleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether any selector of styleSheet, or the linked ones, may match the type.
+     */
+    static boolean isStyled(String type, StyleSheet styleSheet) {
+        if (styleSheet == null) {
+            return false;
+        }
+
+        for (StyleSheet linked : styleSheet.getImports()) {
+            if (isStyled(type, linked)) {
+                return true;
+            }
+        }
+
+        for (CssSelector selector : styleSheet.matchedSelector(type, null, null)) {
+            if (selector != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void append(SpannableStringBuilder out, HNDomTree tree) {
+        int start = out.length();
+
+        if (HtmlTag.isSwallowInnerTag(tree.getType()) && !tree.isLeaf()) {
+            appendSwallowed(out, tree);
+        } else {
+            for (HNDomTree child : tree.children()) {
+                append(out, child);
+            }
+
+            // text of tree may be flattened already, in which case it keeps the spans
+            Object text = tree.getInlineStyles().getStyle(tree, TEXT);
+            if (text instanceof CharSequence) {
+                out.append((CharSequence) text);
+            } else if (tree.getInner() != null) {
+                out.append(tree.getInner());
+            }
+        }
+
+        setSpans(out, tree, start, out.length());
+    }
+
+    /**
+     * Append inner text of tree with its children inserted at their text offsets.
+     */
+    private static void appendSwallowed(SpannableStringBuilder out, HNDomTree tree) {
+        String text = tree.getInner();
+        if (text == null) {
+            text = "";
+        }
+
+        int position = 0;
+        for (HNDomTree child : tree.children()) {
+            int offset = Math.min(child.getTextOffset(), text.length());
+            out.append(text, position, offset);
+            position = offset;
+            append(out, child);
+        }
+        out.append(text, position, text.length());
+    }
+
+    private static void setSpans(SpannableStringBuilder out, HNDomTree tree, int start, int end) {
+        if (start == end) {
+            return;
+        }
+
+        if (HtmlTag.B.equals(tree.getType())) {
+            setSpan(out, new StyleSpan(Typeface.BOLD), start, end);
+        }
+
+        Object href = tree.getInlineStyles().getStyle(tree, Styles.ATTR_HREF);
+        if (href != null) {
+            setSpan(out, new HrefSpan(href.toString()), start, end);
+        } else if (HtmlTag.A.equals(tree.getType())) {
+            setSpan(out, new UnderlineSpan(), start, end);
+        }
+
+        Object color = tree.getInlineStyles().getStyle(tree, COLOR);
+        if (color != null) {
+            try {
+                setSpan(out, new ForegroundColorSpan(ParametersUtils.toColor(color)), start, end);
+            } catch (ParametersUtils.ParametersParseException e) {
+                e.printStackTrace();
+            }
+        }
+
+        Object weight = tree.getInlineStyles().getStyle(tree, FONT_WEIGHT);
+        if (weight != null && weight.toString().equals("bold")) {
+            setSpan(out, new StyleSpan(Typeface.BOLD), start, end);
+        }
+
+        Object style = tree.getInlineStyles().getStyle(tree, FONT_STYLE);
+        if (style != null && style.toString().equals("italic")) {
+            setSpan(out, new StyleSpan(Typeface.ITALIC), start, end);
+        }
+    }
+
+    private static void setSpan(SpannableStringBuilder out, Object span, int start, int end) {
+        out.setSpan(span, start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+    }
+
+    /**
+     * Records whether any inline style is not one of {@link #INLINE_STYLES}.
+     */
+    private static final class NonInlineStyleFinder implements StyleConsumer {
+
+        boolean mFound;
+
+        @Override
+        public void accept(String styleName, Object style) {
+            if (!mFound && !isInlineStyle(styleName)) {
+                mFound = true;
+            }
+        }
+    }
+
+    /**
+     * Span of {@code <a href>}, passes the href to {@link com.mozz.htmlnative.OnHrefClick}.
+     */
+    private static final class HrefSpan extends ClickableSpan {
+
+        private final String mHref;
+
+        HrefSpan(String href) {
+            mHref = href;
+        }
+
+        @Override
+        public void onClick(View widget) {
+            if (HNativeEngine.getHrefLinkHandler() != null) {
+                HNativeEngine.getHrefLinkHandler().onHref(mHref, widget);
+            }
+        }
+    }
+}
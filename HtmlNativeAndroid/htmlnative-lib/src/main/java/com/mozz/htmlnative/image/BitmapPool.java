@@ -0,0 +1,92 @@
+package com.mozz.htmlnative.image;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bitmaps no longer shown by any view nor kept by memory cache, reused as
+ * {@link android.graphics.BitmapFactory.Options#inBitmap} by the following decodes, so that
+ * loading images one after another in a feed does not allocate a new bitmap each time.
+ * <p>
+ * Bitmaps are keyed by allocation size, as a bitmap can be reconfigured to any size and config
+ * fitting in its allocation. When the pool is full, the largest ones are dropped first.
+ *
+ * @author Yang Tao, 17/8/9.
+ */
+
+final class BitmapPool {
+
+    /**
+     * a bitmap is not reused for a decode needing less than 1/MAX_SIZE_MULTIPLE of it, which
+     * wastes too much memory
+     */
+    private static final int MAX_SIZE_MULTIPLE = 4;
+
+    private final TreeMap<Integer, ArrayDeque<Bitmap>> mBitmaps = new TreeMap<>();
+    private final int mMaxSize;
+    private int mSize;
+
+    BitmapPool(int maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    synchronized void put(@NonNull Bitmap bitmap) {
+        if (!bitmap.isMutable() || bitmap.isRecycled()) {
+            return;
+        }
+
+        int size = bitmap.getAllocationByteCount();
+        if (size > mMaxSize) {
+            return;
+        }
+
+        ArrayDeque<Bitmap> bitmaps = mBitmaps.get(size);
+        if (bitmaps == null) {
+            bitmaps = new ArrayDeque<>();
+            mBitmaps.put(size, bitmaps);
+        }
+        bitmaps.addFirst(bitmap);
+        mSize += size;
+
+        trimToSize(mMaxSize);
+    }
+
+    /**
+     * @return a bitmap whose allocation is no smaller than byteCount, or null if there is none.
+     */
+    @Nullable
+    synchronized Bitmap get(int byteCount) {
+        Integer size = mBitmaps.ceilingKey(byteCount);
+        if (size == null || size > (long) byteCount * MAX_SIZE_MULTIPLE) {
+            return null;
+        }
+
+        ArrayDeque<Bitmap> bitmaps = mBitmaps.get(size);
+        Bitmap bitmap = bitmaps.pollFirst();
+        if (bitmaps.isEmpty()) {
+            mBitmaps.remove(size);
+        }
+        mSize -= size;
+        return bitmap;
+    }
+
+    synchronized void trimToSize(int maxSize) {
+        while (mSize > maxSize && !mBitmaps.isEmpty()) {
+            Map.Entry<Integer, ArrayDeque<Bitmap>> largest = mBitmaps.lastEntry();
+            largest.getValue().pollLast();
+            if (largest.getValue().isEmpty()) {
+                mBitmaps.remove(largest.getKey());
+            }
+            mSize -= largest.getKey();
+        }
+    }
+
+    void clear() {
+        trimToSize(0);
+    }
+}
@@ -0,0 +1,777 @@
+package com.mozz.htmlnative.image;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.LruCache;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.widget.ScrollView;
+
+import com.mozz.htmlnative.HNLog;
+import com.mozz.htmlnative.ImageFetcher;
+import com.mozz.htmlnative.utils.IOUtils;
+import com.mozz.htmlnative.utils.MainHandlerUtils;
+import com.mozz.htmlnative.view.BackgroundViewDelegate;
+import com.mozz.htmlnative.view.HNRootView;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Built-in {@link ImageFetcher}, enabled by
+ * {@link com.mozz.htmlnative.HNConfig.Builder#setImageSource(ImageSource)}.
+ * <p>
+ * An image is decoded no larger than needed by the view, so the request waits until the view is
+ * laid out, and the decoded bitmaps are kept in memory by url and that size. The encoded ones
+ * are kept on disk by url. Requests of the same url and size share one load, and the request of
+ * a view is cancelled when the view is detached, or when another image is set to the same place
+ * of it.
+ * <p>
+ * Bitmaps are counted by the views showing them and by memory cache, and the ones held by none
+ * go to a {@link BitmapPool} to be decoded into again. Views of closed pages release their
+ * bitmaps by {@link #releaseViews(View)}, and the detached ones release theirs when memory runs
+ * low, and load again when attached.
+ * <p>
+ * Loads wait in a queue ordered by the distance from their views to the visible area of
+ * {@link HNRootView}, which is updated when it scrolls, so the visible images load first. The
+ * ones farther than {@link #DEFER_SCREENS} screens are not queued until scrolled near. Images in
+ * a nested scroller are never deferred, since only scrolling of HNRootView is watched.
+ * <p>
+ * All the methods are called in main thread, loading and decoding run in worker threads.
+ *
+ * @author Yang Tao, 17/8/8.
+ */
+
+public final class HNImageLoader implements ImageFetcher {
+
+    private static final String DISK_CACHE_DIR = "htmlnative-images";
+    private static final long DISK_CACHE_SIZE = 32 * 1024 * 1024;
+    /**
+     * max count of loads running at the same time
+     */
+    private static final int THREAD_COUNT = 3;
+
+    /**
+     * images farther than this many screens from the visible area are deferred
+     */
+    private static final int DEFER_SCREENS = 2;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * memory budget defaults to this fraction of the max heap
+     */
+    private static final int MEMORY_BUDGET_DIVIDER = 8;
+
+    /**
+     * bitmap pool takes this fraction of the memory budget, memory cache takes the rest
+     */
+    private static final int POOL_DIVIDER = 4;
+
+    private final ImageSource mSource;
+    private final ImageDiskCache mDiskCache;
+    private final LruCache<String, Bitmap> mMemoryCache;
+    private final BitmapPool mBitmapPool;
+    private final ThreadPoolExecutor mExecutor;
+    private final int mDeferDistance;
+
+    /**
+     * order of jobs with the same priority
+     */
+    private long mJobSequence;
+
+    private final Map<HNRootView, Boolean> mListeningRoots = new WeakHashMap<>();
+    private boolean mViewportCheckPosted;
+
+    private final Runnable mViewportCheck = new Runnable() {
+        @Override
+        public void run() {
+            mViewportCheckPosted = false;
+            reprioritize();
+        }
+    };
+
+    private final HNRootView.OnViewportChangedListener mViewportListener = new HNRootView
+            .OnViewportChangedListener() {
+        @Override
+        public void onViewportChanged(HNRootView rootView, int scrollY, int viewportHeight) {
+            if (!mViewportCheckPosted) {
+                mViewportCheckPosted = true;
+                rootView.post(mViewportCheck);
+            }
+        }
+    };
+
+    /**
+     * loads in flight keyed by url and size
+     */
+    private final Map<String, Job> mJobs = new HashMap<>();
+
+    /**
+     * pending targets of each view, the target is kept alive by the listeners it registers to
+     * view, so neither of them is held by loader
+     */
+    private final Map<View, WeakReference<Target>> mSrcTargets = new WeakHashMap<>();
+    private final Map<View, WeakReference<Target>> mBackgroundTargets = new WeakHashMap<>();
+
+    /**
+     * count of the views and memory cache holding each bitmap
+     */
+    private final Map<Bitmap, Integer> mRefCounts = new WeakHashMap<>();
+
+    private final ComponentCallbacks2 mTrimCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                trim(0);
+            } else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+                trim(mMemoryCache.maxSize() / 2);
+            }
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+
+        }
+
+        @Override
+        public void onLowMemory() {
+            trim(0);
+        }
+    };
+
+    public HNImageLoader(@NonNull Context context, @NonNull ImageSource source) {
+        this(context, source, 0);
+    }
+
+    /**
+     * @param memoryBudget max bytes of the bitmaps kept by memory cache and bitmap pool, or 0
+     *                     for 1/8 of the max heap
+     */
+    public HNImageLoader(@NonNull Context context, @NonNull ImageSource source, int
+            memoryBudget) {
+        this(context, source, memoryBudget, new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+                0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>()));
+    }
+
+    /**
+     * @param executor runs the loads, must take {@link Runnable}s whose order is decided by
+     *                 their {@link Comparable}
+     */
+    HNImageLoader(@NonNull Context context, @NonNull ImageSource source, int memoryBudget,
+                  @NonNull ThreadPoolExecutor executor) {
+        if (memoryBudget <= 0) {
+            memoryBudget = (int) (Runtime.getRuntime().maxMemory() / MEMORY_BUDGET_DIVIDER);
+        }
+
+        mSource = source;
+        mDiskCache = new ImageDiskCache(new File(context.getCacheDir(), DISK_CACHE_DIR),
+                DISK_CACHE_SIZE);
+        mBitmapPool = new BitmapPool(memoryBudget / POOL_DIVIDER);
+        mMemoryCache = new LruCache<String, Bitmap>(memoryBudget - memoryBudget / POOL_DIVIDER) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap
+                    newValue) {
+                if (oldValue != newValue) {
+                    release(oldValue);
+                }
+            }
+        };
+        mExecutor = executor;
+        mDeferDistance = context.getResources().getDisplayMetrics().heightPixels * DEFER_SCREENS;
+    }
+
+    /**
+     * Callbacks to be registered to Application, which releases bitmaps when memory runs low.
+     */
+    @NonNull
+    public ComponentCallbacks2 trimCallbacks() {
+        return mTrimCallbacks;
+    }
+
+    /**
+     * Stop loading, and drop the bitmaps in memory. Images set after this are not loaded.
+     */
+    @MainThread
+    public void shutdown() {
+        mExecutor.shutdownNow();
+        for (Job job : mJobs.values()) {
+            job.mCancelled = true;
+        }
+        mJobs.clear();
+        mMemoryCache.evictAll();
+        mBitmapPool.clear();
+    }
+
+    @Override
+    @MainThread
+    public void setImage(String src, BackgroundViewDelegate imageView) {
+        View view = imageView.getView();
+        if (src == null || view == null || mExecutor.isShutdown()) {
+            return;
+        }
+
+        Map<View, WeakReference<Target>> targets = imageView.isSrc() ? mSrcTargets :
+                mBackgroundTargets;
+        Target target = new Target(src, imageView, view);
+        WeakReference<Target> previous = targets.put(view, new WeakReference<>(target));
+        if (previous != null && previous.get() != null) {
+            target.mPrevious = previous.get().handOver();
+        }
+
+        target.start();
+    }
+
+    /**
+     * Release the bitmaps of view and its descendants, and cancel their requests, called when
+     * the views are not used any more.
+     */
+    @MainThread
+    public void releaseViews(@NonNull View view) {
+        finishTarget(mSrcTargets, view);
+        finishTarget(mBackgroundTargets, view);
+
+        if (view instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) view;
+            for (int i = 0; i < viewGroup.getChildCount(); i++) {
+                releaseViews(viewGroup.getChildAt(i));
+            }
+        }
+    }
+
+    private static void finishTarget(Map<View, WeakReference<Target>> targets, View view) {
+        WeakReference<Target> ref = targets.get(view);
+        Target target = ref != null ? ref.get() : null;
+        if (target != null) {
+            target.finish();
+        }
+    }
+
+    /**
+     * Release the bitmaps of detached views, and trim memory cache to maxSize. Released bitmaps
+     * are dropped rather than pooled.
+     */
+    private void trim(int maxSize) {
+        releaseDetached(mSrcTargets);
+        releaseDetached(mBackgroundTargets);
+        mMemoryCache.trimToSize(maxSize);
+        mBitmapPool.clear();
+    }
+
+    private static void releaseDetached(Map<View, WeakReference<Target>> targets) {
+        for (WeakReference<Target> ref : targets.values()) {
+            Target target = ref.get();
+            if (target != null && !target.mView.isAttachedToWindow()) {
+                target.releaseBitmap();
+            }
+        }
+    }
+
+    private void acquire(Bitmap bitmap) {
+        Integer count = mRefCounts.get(bitmap);
+        mRefCounts.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    private void release(Bitmap bitmap) {
+        Integer count = mRefCounts.get(bitmap);
+        if (count == null || count <= 1) {
+            mRefCounts.remove(bitmap);
+            mBitmapPool.put(bitmap);
+        } else {
+            mRefCounts.put(bitmap, count - 1);
+        }
+    }
+
+    /**
+     * @param priority distance from view to the visible area, the nearer loads first
+     */
+    private void request(Target target, int width, int height, int priority) {
+        // targets set before shutdown may request again when attached or scrolled near
+        if (mExecutor.isShutdown()) {
+            return;
+        }
+
+        String key = target.mUrl + '#' + width + 'x' + height;
+
+        Bitmap cached = mMemoryCache.get(key);
+        if (cached != null) {
+            target.show(cached);
+            return;
+        }
+
+        Job job = mJobs.get(key);
+        if (job == null) {
+            job = new Job(key, target.mUrl, width, height, mJobSequence++);
+            job.mPriority = priority;
+            mJobs.put(key, job);
+            mExecutor.execute(job);
+        } else if (priority < job.mPriority && mExecutor.remove(job)) {
+            // the queue is not sorted again when an element changes, so take it out first
+            job.mPriority = priority;
+            mExecutor.execute(job);
+        }
+        job.mTargets.add(target);
+        target.mJob = job;
+
+        listen(target.mRootView);
+    }
+
+    private void listen(@Nullable HNRootView rootView) {
+        if (rootView != null && mListeningRoots.put(rootView, Boolean.TRUE) == null) {
+            rootView.addOnViewportChangedListener(mViewportListener);
+        }
+    }
+
+    /**
+     * Sort the queued jobs again by the new distances of their views, defer the ones scrolled
+     * far away, and queue the deferred ones scrolled near.
+     */
+    private void reprioritize() {
+        for (Job job : new ArrayList<>(mJobs.values())) {
+            // running or done
+            if (!mExecutor.remove(job)) {
+                continue;
+            }
+
+            int priority = Integer.MAX_VALUE;
+            boolean deferrable = true;
+            for (Target target : job.mTargets) {
+                priority = Math.min(priority, target.measureDistance());
+                deferrable &= !target.mInNestedScroller;
+            }
+
+            if (deferrable && priority > mDeferDistance) {
+                for (Target target : job.mTargets) {
+                    target.mJob = null;
+                    target.mDeferred = true;
+                }
+                job.mTargets.clear();
+                job.mCancelled = true;
+                mJobs.remove(job.mKey);
+            } else {
+                job.mPriority = priority;
+                mExecutor.execute(job);
+            }
+        }
+
+        requestDeferred(mSrcTargets);
+        requestDeferred(mBackgroundTargets);
+    }
+
+    private void requestDeferred(Map<View, WeakReference<Target>> targets) {
+        for (WeakReference<Target> ref : new ArrayList<>(targets.values())) {
+            Target target = ref.get();
+            if (target != null && target.mDeferred) {
+                target.mDeferred = false;
+                target.requestOrDefer(target.mWidth, target.mHeight);
+            }
+        }
+    }
+
+    private void cancel(Target target) {
+        Job job = target.mJob;
+        target.mJob = null;
+        if (job == null) {
+            return;
+        }
+
+        job.mTargets.remove(target);
+        if (job.mTargets.isEmpty()) {
+            job.mCancelled = true;
+            mExecutor.remove(job);
+            mJobs.remove(job.mKey);
+        }
+    }
+
+    private void onJobDone(Job job, @Nullable Bitmap bitmap) {
+        if (mExecutor.isShutdown()) {
+            return;
+        }
+
+        if (mJobs.get(job.mKey) == job) {
+            mJobs.remove(job.mKey);
+        }
+
+        for (Target target : job.mTargets) {
+            target.mJob = null;
+            if (bitmap != null) {
+                target.show(bitmap);
+            }
+        }
+        job.mTargets.clear();
+
+        if (bitmap == null) {
+            return;
+        }
+
+        // shown first, so that it is not pooled if evicted at once
+        acquire(bitmap);
+        mMemoryCache.put(job.mKey, bitmap);
+    }
+
+    @WorkerThread
+    static byte[] load(@NonNull ImageSource source, @NonNull ImageDiskCache diskCache, @NonNull
+            String url) throws IOException {
+        byte[] data = diskCache.get(url);
+        if (data != null) {
+            return data;
+        }
+
+        InputStream in = null;
+        try {
+            in = source.open(url);
+            data = ImageDiskCache.readFully(in);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+
+        diskCache.put(url, data);
+        return data;
+    }
+
+    /**
+     * @param reqWidth  width of view, or 0 if it is not limited
+     * @param reqHeight height of view, or 0 if it is not limited
+     * @return the largest power of 2 which keeps the image no smaller than view
+     */
+    static int sampleSize(int width, int height, int reqWidth, int reqHeight) {
+        if (reqWidth <= 0 && reqHeight <= 0) {
+            return 1;
+        }
+
+        int sampleSize = 1;
+        while ((reqWidth <= 0 || width / (sampleSize * 2) >= reqWidth) && (reqHeight <= 0 ||
+                height / (sampleSize * 2) >= reqHeight)) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    @WorkerThread
+    @Nullable
+    private Bitmap decode(byte[] data, int reqWidth, int reqHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sampleSize = sampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        int width = (options.outWidth + sampleSize - 1) / sampleSize;
+        int height = (options.outHeight + sampleSize - 1) / sampleSize;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inMutable = true;
+        options.inBitmap = mBitmapPool.get(width * height * BYTES_PER_PIXEL);
+        try {
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (IllegalArgumentException e) {
+            if (options.inBitmap == null) {
+                throw e;
+            }
+
+            // the decoded one does not fit in inBitmap, as its size is estimated
+            mBitmapPool.put(options.inBitmap);
+            options.inBitmap = null;
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+    }
+
+    private final class Job implements Runnable, Comparable<Job> {
+        final String mKey;
+        final String mUrl;
+        final int mWidth;
+        final int mHeight;
+        final long mSequence;
+        final List<Target> mTargets = new ArrayList<>(1);
+
+        /**
+         * only changed when the job is out of queue
+         */
+        volatile int mPriority;
+
+        volatile boolean mCancelled;
+
+        Job(String key, String url, int width, int height, long sequence) {
+            mKey = key;
+            mUrl = url;
+            mWidth = width;
+            mHeight = height;
+            mSequence = sequence;
+        }
+
+        @Override
+        public int compareTo(@NonNull Job o) {
+            if (mPriority != o.mPriority) {
+                return mPriority < o.mPriority ? -1 : 1;
+            }
+            return mSequence < o.mSequence ? -1 : mSequence > o.mSequence ? 1 : 0;
+        }
+
+        @Override
+        @WorkerThread
+        public void run() {
+            if (mCancelled) {
+                return;
+            }
+
+            Bitmap bitmap = null;
+            try {
+                byte[] data = load(mSource, mDiskCache, mUrl);
+                if (!mCancelled) {
+                    bitmap = decode(data, mWidth, mHeight);
+                }
+            } catch (IOException e) {
+                HNLog.e(HNLog.IMAGE, "fail to load " + mUrl + ", " + e.getMessage());
+            }
+
+            if (bitmap == null && !mCancelled) {
+                HNLog.e(HNLog.IMAGE, "fail to decode " + mUrl);
+            }
+
+            final Bitmap result = bitmap;
+            MainHandlerUtils.instance().post(new Runnable() {
+                @Override
+                public void run() {
+                    onJobDone(Job.this, result);
+                }
+            });
+        }
+    }
+
+    /**
+     * A place of view, which waits for image and then shows it.
+     */
+    private final class Target implements View.OnAttachStateChangeListener, View
+            .OnLayoutChangeListener {
+        final String mUrl;
+        final BackgroundViewDelegate mDelegate;
+        final View mView;
+
+        /**
+         * element attached to view when requested, a different one means the view has been
+         * recycled for another element.
+         */
+        final Object mElement;
+
+        Job mJob;
+
+        /**
+         * laid out but too far from the visible area to load, see {@link #DEFER_SCREENS}
+         */
+        boolean mDeferred;
+        int mWidth;
+        int mHeight;
+
+        /**
+         * root of view, found by {@link #measureDistance()}
+         */
+        HNRootView mRootView;
+
+        /**
+         * whether view is in a ScrollView inside mRootView, found by {@link #measureDistance()}
+         */
+        boolean mInNestedScroller;
+
+        /**
+         * bitmap shown by this target
+         */
+        Bitmap mBitmap;
+
+        /**
+         * bitmap of the replaced target, still shown until this one shows its own
+         */
+        Bitmap mPrevious;
+
+        boolean mFinished;
+
+        Target(String url, BackgroundViewDelegate delegate, View view) {
+            mUrl = url;
+            mDelegate = delegate;
+            mView = view;
+            mElement = view.getTag();
+        }
+
+        void start() {
+            mView.addOnAttachStateChangeListener(this);
+            requestWhenLaidOut();
+        }
+
+        private void requestWhenLaidOut() {
+            if (mView.isLaidOut()) {
+                requestOrDefer(mView.getWidth(), mView.getHeight());
+            } else {
+                mView.addOnLayoutChangeListener(this);
+            }
+        }
+
+        void show(Bitmap bitmap) {
+            acquire(bitmap);
+            mDelegate.setBitmap(bitmap);
+
+            if (mBitmap != null) {
+                release(mBitmap);
+            }
+            mBitmap = bitmap;
+
+            if (mPrevious != null) {
+                release(mPrevious);
+                mPrevious = null;
+            }
+        }
+
+        /**
+         * Finish this target for a new one of the same place.
+         *
+         * @return the bitmap on screen, to be released by the new one
+         */
+        Bitmap handOver() {
+            Bitmap shown = mBitmap != null ? mBitmap : mPrevious;
+            mBitmap = null;
+            mPrevious = null;
+            finish();
+            return shown;
+        }
+
+        /**
+         * Clear the bitmap from view, it is loaded again when view is attached.
+         */
+        void releaseBitmap() {
+            if (mBitmap == null && mPrevious == null) {
+                return;
+            }
+
+            mDelegate.setBitmap(null);
+            if (mBitmap != null) {
+                release(mBitmap);
+                mBitmap = null;
+            }
+            if (mPrevious != null) {
+                release(mPrevious);
+                mPrevious = null;
+            }
+        }
+
+        void requestOrDefer(int width, int height) {
+            mWidth = width;
+            mHeight = height;
+
+            int distance = measureDistance();
+            if (!mInNestedScroller && distance > mDeferDistance) {
+                mDeferred = true;
+                listen(mRootView);
+            } else {
+                request(this, width, height, distance);
+            }
+        }
+
+        /**
+         * @return distance in px from view to the visible area of its HNRootView, 0 if it is
+         * visible, or not in a HNRootView
+         */
+        int measureDistance() {
+            int top = 0;
+            View view = mView;
+            mInNestedScroller = false;
+            while (true) {
+                top += view.getTop();
+                ViewParent parent = view.getParent();
+                if (parent instanceof HNRootView) {
+                    mRootView = (HNRootView) parent;
+                    break;
+                }
+                if (!(parent instanceof View)) {
+                    return 0;
+                }
+
+                view = (View) parent;
+                top -= view.getScrollY();
+
+                // scrolling of it moves view without notifying the viewport listener of root
+                if (view instanceof ScrollView) {
+                    mInNestedScroller = true;
+                }
+            }
+
+            int viewportTop = mRootView.getScrollY();
+            int viewportBottom = viewportTop + mRootView.getHeight();
+            if (top + mView.getHeight() < viewportTop) {
+                return viewportTop - top - mView.getHeight();
+            } else if (top > viewportBottom) {
+                return top - viewportBottom;
+            } else {
+                return 0;
+            }
+        }
+
+        void finish() {
+            mFinished = true;
+            mDeferred = false;
+            releaseBitmap();
+            Map<View, WeakReference<Target>> targets = mDelegate.isSrc() ? mSrcTargets :
+                    mBackgroundTargets;
+            WeakReference<Target> current = targets.get(mView);
+            if (current != null && current.get() == this) {
+                targets.remove(mView);
+            }
+            cancel(this);
+            mView.removeOnAttachStateChangeListener(this);
+            mView.removeOnLayoutChangeListener(this);
+        }
+
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom, int
+                oldLeft, int oldTop, int oldRight, int oldBottom) {
+            mView.removeOnLayoutChangeListener(this);
+            if (!mFinished && mJob == null && mBitmap == null) {
+                requestOrDefer(right - left, bottom - top);
+            }
+        }
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            if (mFinished || mJob != null || mBitmap != null || mDeferred) {
+                return;
+            }
+
+            // cancelled by detaching, such as scrolled out of a list, or released by trim, and
+            // attached again
+            if (mView.getTag() == mElement) {
+                requestWhenLaidOut();
+            } else {
+                finish();
+            }
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            mView.removeOnLayoutChangeListener(this);
+            mDeferred = false;
+            cancel(this);
+        }
+    }
+}
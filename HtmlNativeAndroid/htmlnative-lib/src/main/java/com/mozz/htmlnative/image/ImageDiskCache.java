@@ -0,0 +1,173 @@
+package com.mozz.htmlnative.image;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+
+import com.mozz.htmlnative.utils.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Encoded images kept as files named by the md5 of url. When the total size exceeds the limit,
+ * the least recently used files are deleted.
+ *
+ * @author Yang Tao, 17/8/8.
+ */
+
+final class ImageDiskCache {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File mDirectory;
+    private final long mMaxSize;
+
+    /**
+     * total size of files, -1 until the directory is scanned at the first write
+     */
+    private long mSize = -1;
+
+    ImageDiskCache(@NonNull File directory, long maxSize) {
+        mDirectory = directory;
+        mMaxSize = maxSize;
+    }
+
+    @WorkerThread
+    @Nullable
+    synchronized byte[] get(@NonNull String url) {
+        File file = fileOf(url);
+        if (!file.exists()) {
+            return null;
+        }
+
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            byte[] data = readFully(in);
+            // lastModified works as the access time of LRU
+            file.setLastModified(System.currentTimeMillis());
+            return data;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    @WorkerThread
+    synchronized void put(@NonNull String url, @NonNull byte[] data) {
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            return;
+        }
+
+        if (mSize < 0) {
+            mSize = 0;
+            File[] files = mDirectory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    mSize += file.length();
+                }
+            }
+        }
+
+        File file = fileOf(url);
+        File temp = new File(mDirectory, file.getName() + TEMP_SUFFIX);
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(temp);
+            out.write(data);
+            out.close();
+            out = null;
+
+            mSize -= file.length();
+            if (temp.renameTo(file)) {
+                mSize += data.length;
+            } else {
+                temp.delete();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+
+        trim(file);
+    }
+
+    /**
+     * @param written the file just written, which is never deleted
+     */
+    private void trim(File written) {
+        if (mSize <= mMaxSize) {
+            return;
+        }
+
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                long diff = o1.lastModified() - o2.lastModified();
+                return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+            }
+        });
+
+        for (File file : files) {
+            if (mSize <= mMaxSize) {
+                break;
+            }
+            if (file.equals(written)) {
+                continue;
+            }
+
+            long length = file.length();
+            if (file.delete()) {
+                mSize -= length;
+            }
+        }
+    }
+
+    private File fileOf(String url) {
+        return new File(mDirectory, md5(url));
+    }
+
+    static String md5(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(s.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+                sb.append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            // both are always supported
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
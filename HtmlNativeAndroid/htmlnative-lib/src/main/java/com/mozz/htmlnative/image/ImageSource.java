@@ -0,0 +1,24 @@
+package com.mozz.htmlnative.image;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Where {@link HNImageLoader} reads the images not found in its caches, {@link UrlImageSource}
+ * by default.
+ *
+ * @author Yang Tao, 17/8/8.
+ */
+
+public interface ImageSource {
+
+    /**
+     * @return stream of the encoded image, closed by caller
+     */
+    @WorkerThread
+    @NonNull
+    InputStream open(@NonNull String url) throws IOException;
+}
@@ -0,0 +1,38 @@
+package com.mozz.htmlnative.image;
+
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+
+/**
+ * Read image by {@link URLConnection}, which supports http, https and file url.
+ *
+ * @author Yang Tao, 17/8/8.
+ */
+
+public final class UrlImageSource implements ImageSource {
+
+    private static final int TIMEOUT_MILLIS = 15000;
+
+    @NonNull
+    @Override
+    public InputStream open(@NonNull String url) throws IOException {
+        URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+
+        if (connection instanceof HttpURLConnection) {
+            int code = ((HttpURLConnection) connection).getResponseCode();
+            if (code < 200 || code >= 300) {
+                ((HttpURLConnection) connection).disconnect();
+                throw new IOException("http " + code + " when loading " + url);
+            }
+        }
+
+        return connection.getInputStream();
+    }
+}
@@ -12,12 +12,15 @@ import com.mozz.htmlnative.css.selector.CssSelector;
 import com.mozz.htmlnative.css.selector.IdSelector;
 import com.mozz.htmlnative.css.selector.TypeSelector;
 import com.mozz.htmlnative.exception.HNSyntaxError;
+import com.mozz.htmlnative.parser.syntaxexc.ErrorStack;
 import com.mozz.htmlnative.parser.syntaxexc.SyntaxErrorHandler;
 import com.mozz.htmlnative.parser.syntaxexc.SyntaxExceptionSource;
 import com.mozz.htmlnative.parser.token.Token;
 import com.mozz.htmlnative.parser.token.TokenType;
+import com.mozz.htmlnative.reader.StringTextReader;
 
 import java.io.EOFException;
+import java.util.HashMap;
 import java.util.Map;
 
 import static com.mozz.htmlnative.parser.StyleItemParser.parseKey;
@@ -74,12 +77,50 @@ public final class CssParser implements SyntaxExceptionSource {
     private SyntaxErrorHandler mSyntaxErrorHandler;
 
     CssParser(Lexer lexer, Parser parentParser, SyntaxErrorHandler errorHandler) {
+        this(lexer, parentParser.getStyleCache(), errorHandler);
+    }
+
+    private CssParser(Lexer lexer, Map<String, Object> styleCache, SyntaxErrorHandler
+            errorHandler) {
         this.lexer = new CssLexer(lexer);
-        this.styleCache = parentParser.getStyleCache();
+        this.styleCache = styleCache;
         mSyntaxErrorHandler = errorHandler;
         mSyntaxErrorHandler.setSource(this);
     }
 
+    /**
+     * Parse a standalone css source, such as the content of a {@code <link rel="stylesheet">},
+     * into a new {@link StyleSheet}. The source ends at the end of the string rather than at
+     * {@code </style>}.
+     *
+     * @param css css source to parse
+     * @return the parsed StyleSheet
+     */
+    @NonNull
+    public static StyleSheet parseStyleSheet(@NonNull String css) throws HNSyntaxError {
+        StyleSheet styleSheet = new StyleSheet();
+
+        ErrorStack stack = new ErrorStack();
+        SyntaxErrorHandler errorHandler = new SyntaxErrorHandler(stack, null);
+        // append a trailing line break, so that the lexer can look ahead past the last '}'
+        Lexer lexer = new Lexer(new StringTextReader(css + '\n'), errorHandler
+                .newChildHandler());
+        CssParser parser = new CssParser(lexer, new HashMap<String, Object>(), errorHandler);
+
+        try {
+            parser.process(styleSheet);
+        } catch (EOFException ignored) {
+            // reach the end of the css source, which is the normal end of a standalone sheet.
+        } finally {
+            lexer.close();
+            if (errorHandler.hasError()) {
+                HNLog.e(HNLog.CSS_PARSER, errorHandler.forceDump());
+            }
+        }
+
+        return styleSheet;
+    }
+
     /**
      * Static Method to parse inline style into {@code Map<String, Object>}
      *
@@ -141,8 +182,10 @@ public final class CssParser implements SyntaxExceptionSource {
     }
 
     void process(HNSegment segment) throws EOFException, HNSyntaxError {
-        StyleSheet styleSheet = segment.getStyleSheet();
+        process(segment.getStyleSheet());
+    }
 
+    private void process(StyleSheet styleSheet) throws EOFException, HNSyntaxError {
         lookFor(SELECTOR_START);
 
         CssSelector cssSelector = null;
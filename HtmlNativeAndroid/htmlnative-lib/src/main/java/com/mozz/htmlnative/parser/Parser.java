@@ -8,8 +8,10 @@ import com.mozz.htmlnative.HNLog;
 import com.mozz.htmlnative.HNSegment;
 import com.mozz.htmlnative.HtmlTag;
 import com.mozz.htmlnative.Tracker;
+import com.mozz.htmlnative.css.StyleSheet;
 import com.mozz.htmlnative.css.Styles;
 import com.mozz.htmlnative.dom.HNDomTree;
+import com.mozz.htmlnative.dom.InlineTextFlattener;
 import com.mozz.htmlnative.dom.Meta;
 import com.mozz.htmlnative.exception.HNSyntaxError;
 import com.mozz.htmlnative.parser.syntaxexc.ErrorStack;
@@ -34,6 +36,7 @@ import static com.mozz.htmlnative.parser.token.TokenType.Head;
 import static com.mozz.htmlnative.parser.token.TokenType.Html;
 import static com.mozz.htmlnative.parser.token.TokenType.Id;
 import static com.mozz.htmlnative.parser.token.TokenType.Inner;
+import static com.mozz.htmlnative.parser.token.TokenType.Link;
 import static com.mozz.htmlnative.parser.token.TokenType.Meta;
 import static com.mozz.htmlnative.parser.token.TokenType.Script;
 import static com.mozz.htmlnative.parser.token.TokenType.Slash;
@@ -49,6 +52,9 @@ public final class Parser implements SyntaxExceptionSource {
 
     private static final String ID = "id";
     private static final String CLAZZ = "class";
+    private static final String LINK_REL = "rel";
+    private static final String LINK_HREF = "href";
+    private static final String LINK_STYLESHEET = "stylesheet";
     private static final String TAG = Parser.class.getSimpleName();
 
     @NonNull
@@ -172,6 +178,7 @@ public final class Parser implements SyntaxExceptionSource {
     private void processTemplateThenScript(HNDomTree tree, HNSegment segment) throws
             EOFException, HNSyntaxError {
         processTemplate(tree);
+        flattenInlineText(tree, segment);
         scanFor(StartAngleBracket);
         scan(true);
         if (mCurToken.type() == Script) {
@@ -182,6 +189,14 @@ public final class Parser implements SyntaxExceptionSource {
         scan();
     }
 
+    private void flattenInlineText(HNDomTree tree, HNSegment segment) {
+        long timeStart = SystemClock.currentThreadTimeMillis();
+
+        InlineTextFlattener.flatten(tree, segment.getStyleSheet());
+
+        mTracker.record("Flatten Inline Text", SystemClock.currentThreadTimeMillis() - timeStart);
+    }
+
     private void processScript(HNSegment segment) throws HNSyntaxError, EOFException {
         if (mCurToken.type() != Script) {
             mSyntaxErrorHandler.throwException("Look for script, but " + mCurToken.toString());
@@ -260,6 +275,8 @@ public final class Parser implements SyntaxExceptionSource {
                 scanFor(Style, EndAngleBracket);
             } else if (mCurToken.type() == Meta) {
                 processMeta(segment);
+            } else if (mCurToken.type() == Link) {
+                processLink(segment);
             } else if (mCurToken.type() == StartAngleBracket) {
                 scan(true);
 
@@ -367,6 +384,67 @@ public final class Parser implements SyntaxExceptionSource {
 
     }
 
+    private void processLink(HNSegment segment) throws HNSyntaxError, EOFException {
+        if (mCurToken.type() != Link) {
+            mSyntaxErrorHandler.throwException("Look for link, but " + mCurToken.toString());
+        }
+
+        String idCache = null;
+        String rel = null;
+        String href = null;
+
+        lookFor(LK_ID | LK_SLASH | LK_EndArrowBracket);
+
+        while (true) {
+            scan();
+
+            switch (mCurToken.type()) {
+                case Id:
+                    check(LK_ID);
+                    idCache = mCurToken.stringValue();
+                    scanFor(Equal);
+                    lookFor(LK_VALUE);
+                    break;
+
+                case Value:
+                    check(LK_VALUE);
+                    if (LINK_REL.equalsIgnoreCase(idCache)) {
+                        rel = mCurToken.stringValue();
+                    } else if (LINK_HREF.equalsIgnoreCase(idCache)) {
+                        href = mCurToken.stringValue();
+                    }
+
+                    lookFor(LK_ID | LK_SLASH | LK_EndArrowBracket);
+                    break;
+                case Slash:
+                    check(LK_SLASH);
+                    scanFor(EndAngleBracket);
+                    linkStyleSheet(segment, rel, href);
+                    return;
+
+                case EndAngleBracket:
+                    check(LK_EndArrowBracket);
+                    linkStyleSheet(segment, rel, href);
+                    return;
+
+                default:
+                    mSyntaxErrorHandler.throwException("Unknown token " + mCurToken.toString() +
+                            " when " + "parsing <link>");
+            }
+        }
+    }
+
+    private void linkStyleSheet(HNSegment segment, String rel, String href) {
+        if (!LINK_STYLESHEET.equalsIgnoreCase(rel) || href == null) {
+            return;
+        }
+
+        StyleSheet linked = StyleSheetCache.obtain(href);
+        if (linked != null) {
+            segment.getStyleSheet().addImport(linked);
+        }
+    }
+
     private void processTemplate(HNDomTree tree) throws HNSyntaxError, EOFException {
 
         long timeStart = SystemClock.currentThreadTimeMillis();
@@ -467,9 +545,14 @@ public final class Parser implements SyntaxExceptionSource {
 
                             } else {
                                 HNDomTree child = new HNDomTree(tree, tag, index++);
+                                if (isSwallowInnerTag(tree.getType())) {
+                                    // remember where the child is in text, for merging it later
+                                    child.setTextOffset(tree.innerLength());
+                                }
                                 tree.addChild(child);
                                 processInternal(child);
-                                lookFor(LK_StartArrowBracket);
+                                // inline text may follow the child, as in "<p>a <b>b</b> c</p>"
+                                lookFor(LK_StartArrowBracket | LK_INNER);
                             }
                         }
                         break;
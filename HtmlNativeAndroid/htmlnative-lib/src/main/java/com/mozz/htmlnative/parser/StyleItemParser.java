@@ -1,5 +1,6 @@
 package com.mozz.htmlnative.parser;
 
+import com.mozz.htmlnative.common.ColorValue;
 import com.mozz.htmlnative.css.Background;
 import com.mozz.htmlnative.css.Styles;
 
@@ -10,6 +11,8 @@ public final class StyleItemParser {
 
     private static final CssParser.StyleHolder STYLE_HOLDER = new CssParser.StyleHolder();
 
+    private static final String COLOR = "color";
+
     /**
      * to parse single style string into {@link CssParser.StyleHolder}. For example, 'background:url
      * (http://www.abc.com/efg.jpg)' will become :<br/>
@@ -32,6 +35,13 @@ public final class StyleItemParser {
             STYLE_HOLDER.key = Styles.ATTR_BACKGROUND;
             STYLE_HOLDER.obj = val;
             return STYLE_HOLDER;
+        } else if (styleName.equals(COLOR)) {
+            // parse color here, so that it is parsed only once for each StyleSheet
+            String color = styleValue.trim();
+            ColorValue colorValue = ColorValue.parse(color);
+            STYLE_HOLDER.key = styleName;
+            STYLE_HOLDER.obj = colorValue != null ? colorValue : color;
+            return STYLE_HOLDER;
         } else {
             STYLE_HOLDER.key = styleName;
             STYLE_HOLDER.obj = styleValue.trim();
@@ -0,0 +1,97 @@
+package com.mozz.htmlnative.parser;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.ArrayMap;
+
+import com.mozz.htmlnative.HNLog;
+import com.mozz.htmlnative.StyleSheetLoader;
+import com.mozz.htmlnative.css.StyleSheet;
+import com.mozz.htmlnative.exception.HNSyntaxError;
+
+import java.util.Map;
+
+/**
+ * Global cache of the StyleSheets linked by {@code <link rel="stylesheet">}, keyed by href.
+ * StyleSheets in cache are parsed once, sealed and shared read-only by all segments.
+ *
+ * @author Yang Tao, 17/7/20.
+ */
+
+public final class StyleSheetCache {
+
+    private StyleSheetCache() {
+    }
+
+    @NonNull
+    private static Map<String, StyleSheet> sCache = new ArrayMap<>();
+    private static final Object sCacheLock = new Object();
+
+    @Nullable
+    private static volatile StyleSheetLoader sLoader;
+
+    public static void setLoader(@Nullable StyleSheetLoader loader) {
+        sLoader = loader;
+    }
+
+    /**
+     * Get the StyleSheet of href, load and parse it via {@link StyleSheetLoader} if it is not
+     * in cache.
+     *
+     * @param href href of link tag
+     * @return sealed StyleSheet, or null if there is no loader or it can not be loaded.
+     */
+    @Nullable
+    public static StyleSheet obtain(@NonNull String href) {
+        synchronized (sCacheLock) {
+            StyleSheet styleSheet = sCache.get(href);
+            if (styleSheet != null) {
+                return styleSheet;
+            }
+        }
+
+        StyleSheetLoader loader = sLoader;
+        if (loader == null) {
+            HNLog.e(HNLog.CSS_PARSER, "no StyleSheetLoader set, ignore stylesheet " + href);
+            return null;
+        }
+
+        // load and parse outside the lock, as the loader may block.
+        String css = loader.loadStyleSheet(href);
+        if (css == null) {
+            HNLog.e(HNLog.CSS_PARSER, "can't load stylesheet " + href);
+            return null;
+        }
+
+        StyleSheet parsed;
+        try {
+            parsed = CssParser.parseStyleSheet(css);
+        } catch (HNSyntaxError e) {
+            e.printStackTrace();
+            return null;
+        }
+        parsed.seal();
+
+        synchronized (sCacheLock) {
+            StyleSheet styleSheet = sCache.get(href);
+            if (styleSheet != null) {
+                // someone else has parsed it already, use that one.
+                return styleSheet;
+            }
+            sCache.put(href, parsed);
+            return parsed;
+        }
+    }
+
+    public static void remove(String href) {
+        synchronized (sCacheLock) {
+            sCache.remove(href);
+        }
+    }
+
+    public static void clear() {
+        synchronized (sCacheLock) {
+            sCache.clear();
+        }
+    }
+}
@@ -5,10 +5,11 @@ import android.view.ViewGroup;
 import android.view.ViewParent;
 import android.widget.TextView;
 
+import com.mozz.htmlnative.HNListAdapter;
 import com.mozz.htmlnative.HNRenderer;
 import com.mozz.htmlnative.HNSandBoxContext;
 import com.mozz.htmlnative.HtmlTag;
-import com.mozz.htmlnative.InheritStyleStack;
+import com.mozz.htmlnative.InheritedStyle;
 import com.mozz.htmlnative.css.Styles;
 import com.mozz.htmlnative.css.stylehandler.LayoutStyleHandler;
 import com.mozz.htmlnative.css.stylehandler.StyleHandler;
@@ -18,6 +19,7 @@ import com.mozz.htmlnative.dom.DomElement;
 import com.mozz.htmlnative.exception.AttrApplyException;
 import com.mozz.htmlnative.parser.CssParser;
 import com.mozz.htmlnative.utils.MainHandlerUtils;
+import com.mozz.htmlnative.view.HNListView;
 import com.mozz.htmlnative.view.LayoutParamsCreator;
 
 import org.luaj.vm2.LuaBoolean;
@@ -27,6 +29,8 @@ import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.lib.OneArgFunction;
 import org.luaj.vm2.lib.ZeroArgFunction;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -158,6 +162,36 @@ class LView extends LObject {
             }
         });
 
+        set("setData", new OneArgFunction() {
+            @Override
+            public LuaValue call(LuaValue arg) {
+                if (mCreated && mView instanceof HNListView && arg.istable()) {
+                    // copy the items out of lua, as they are bound in main thread later
+                    LuaTable table = arg.checktable();
+                    final List<Map<String, String>> items = new ArrayList<>(table.length());
+                    for (int i = 1; i <= table.length(); i++) {
+                        LuaValue item = table.get(i);
+                        if (item.istable()) {
+                            items.add(LuaUtils.luaTableToMap(item.checktable()));
+                        } else {
+                            items.add(Collections.<String, String>emptyMap());
+                        }
+                    }
+
+                    MainHandlerUtils.instance().post(new Runnable() {
+                        @Override
+                        public void run() {
+                            Object adapter = ((HNListView) mView).getAdapter();
+                            if (adapter instanceof HNListAdapter) {
+                                ((HNListAdapter) adapter).setItems(items);
+                            }
+                        }
+                    });
+                }
+                return LuaValue.NIL;
+            }
+        });
+
         set("id", new ZeroArgFunction() {
                     @Override
                     public LuaValue call() {
@@ -366,13 +400,13 @@ class LView extends LObject {
                         child.mDomElement.setParent(parent.mDomElement);
 
                         // Compute the inherit style of parent
-                        InheritStyleStack inheritStyleStack = HNRenderer.computeInheritStyle
+                        InheritedStyle inheritedStyle = HNRenderer.computeInheritStyle
                                 (parent.mView);
 
                         child.mView = HNRenderer.createView(null, child.mDomElement, child
                                 .mContext, (ViewGroup) parent.mView, parent.mView.getContext(),
                                 null, creator, child.mContext.getSegment().getStyleSheet(),
-                                inheritStyleStack);
+                                inheritedStyle);
 
                         Map<String, Object> inlineStyles;
                         synchronized (child.mLock) {
@@ -382,7 +416,7 @@ class LView extends LObject {
                         try {
                             HNRenderer.renderStyle(child.mView.getContext(), parent.mContext,
                                     child.mView, child.mDomElement, creator, (ViewGroup) parent
-                                            .mView, inlineStyles, inheritStyleStack);
+                                            .mView, inlineStyles, inheritedStyle);
 
                             if (child.mToBeAddText != null) {
                                 if (child.mView instanceof TextView) {
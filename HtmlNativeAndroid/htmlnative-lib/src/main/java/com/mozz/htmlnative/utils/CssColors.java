@@ -0,0 +1,400 @@
+package com.mozz.htmlnative.utils;
+
+import android.support.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parser of CSS color, supports named colors, hex colors, rgb(), rgba(), hsl() and hsla(). All
+ * colors are packed into ARGB int, the same as {@link android.graphics.Color}.
+ * <p>
+ * Hex colors with alpha follow the android convention, i.e. #AARRGGBB and #ARGB.
+ * <p>
+ * Parsed colors are kept in a bounded cache, so a color string is parsed only once.
+ *
+ * @author Yang Tao, 17/7/27.
+ */
+
+public final class CssColors {
+
+    private static final int CACHE_SIZE = 256;
+
+    private static final Map<String, Integer> sNamedColors = new HashMap<>(256);
+
+    private static final Map<String, Integer> sCache = new LinkedHashMap<String, Integer>
+            (CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    static {
+        sNamedColors.put("transparent", 0x00000000);
+        sNamedColors.put("aliceblue", 0xfff0f8ff);
+        sNamedColors.put("antiquewhite", 0xfffaebd7);
+        sNamedColors.put("aqua", 0xff00ffff);
+        sNamedColors.put("aquamarine", 0xff7fffd4);
+        sNamedColors.put("azure", 0xfff0ffff);
+        sNamedColors.put("beige", 0xfff5f5dc);
+        sNamedColors.put("bisque", 0xffffe4c4);
+        sNamedColors.put("black", 0xff000000);
+        sNamedColors.put("blanchedalmond", 0xffffebcd);
+        sNamedColors.put("blue", 0xff0000ff);
+        sNamedColors.put("blueviolet", 0xff8a2be2);
+        sNamedColors.put("brown", 0xffa52a2a);
+        sNamedColors.put("burlywood", 0xffdeb887);
+        sNamedColors.put("cadetblue", 0xff5f9ea0);
+        sNamedColors.put("chartreuse", 0xff7fff00);
+        sNamedColors.put("chocolate", 0xffd2691e);
+        sNamedColors.put("coral", 0xffff7f50);
+        sNamedColors.put("cornflowerblue", 0xff6495ed);
+        sNamedColors.put("cornsilk", 0xfffff8dc);
+        sNamedColors.put("crimson", 0xffdc143c);
+        sNamedColors.put("cyan", 0xff00ffff);
+        sNamedColors.put("darkblue", 0xff00008b);
+        sNamedColors.put("darkcyan", 0xff008b8b);
+        sNamedColors.put("darkgoldenrod", 0xffb8860b);
+        sNamedColors.put("darkgray", 0xffa9a9a9);
+        sNamedColors.put("darkgreen", 0xff006400);
+        sNamedColors.put("darkgrey", 0xffa9a9a9);
+        sNamedColors.put("darkkhaki", 0xffbdb76b);
+        sNamedColors.put("darkmagenta", 0xff8b008b);
+        sNamedColors.put("darkolivegreen", 0xff556b2f);
+        sNamedColors.put("darkorange", 0xffff8c00);
+        sNamedColors.put("darkorchid", 0xff9932cc);
+        sNamedColors.put("darkred", 0xff8b0000);
+        sNamedColors.put("darksalmon", 0xffe9967a);
+        sNamedColors.put("darkseagreen", 0xff8fbc8f);
+        sNamedColors.put("darkslateblue", 0xff483d8b);
+        sNamedColors.put("darkslategray", 0xff2f4f4f);
+        sNamedColors.put("darkslategrey", 0xff2f4f4f);
+        sNamedColors.put("darkturquoise", 0xff00ced1);
+        sNamedColors.put("darkviolet", 0xff9400d3);
+        sNamedColors.put("deeppink", 0xffff1493);
+        sNamedColors.put("deepskyblue", 0xff00bfff);
+        sNamedColors.put("dimgray", 0xff696969);
+        sNamedColors.put("dimgrey", 0xff696969);
+        sNamedColors.put("dodgerblue", 0xff1e90ff);
+        sNamedColors.put("firebrick", 0xffb22222);
+        sNamedColors.put("floralwhite", 0xfffffaf0);
+        sNamedColors.put("forestgreen", 0xff228b22);
+        sNamedColors.put("fuchsia", 0xffff00ff);
+        sNamedColors.put("gainsboro", 0xffdcdcdc);
+        sNamedColors.put("ghostwhite", 0xfff8f8ff);
+        sNamedColors.put("gold", 0xffffd700);
+        sNamedColors.put("goldenrod", 0xffdaa520);
+        sNamedColors.put("gray", 0xff808080);
+        sNamedColors.put("green", 0xff008000);
+        sNamedColors.put("greenyellow", 0xffadff2f);
+        sNamedColors.put("grey", 0xff808080);
+        sNamedColors.put("honeydew", 0xfff0fff0);
+        sNamedColors.put("hotpink", 0xffff69b4);
+        sNamedColors.put("indianred", 0xffcd5c5c);
+        sNamedColors.put("indigo", 0xff4b0082);
+        sNamedColors.put("ivory", 0xfffffff0);
+        sNamedColors.put("khaki", 0xfff0e68c);
+        sNamedColors.put("lavender", 0xffe6e6fa);
+        sNamedColors.put("lavenderblush", 0xfffff0f5);
+        sNamedColors.put("lawngreen", 0xff7cfc00);
+        sNamedColors.put("lemonchiffon", 0xfffffacd);
+        sNamedColors.put("lightblue", 0xffadd8e6);
+        sNamedColors.put("lightcoral", 0xfff08080);
+        sNamedColors.put("lightcyan", 0xffe0ffff);
+        sNamedColors.put("lightgoldenrodyellow", 0xfffafad2);
+        sNamedColors.put("lightgray", 0xffd3d3d3);
+        sNamedColors.put("lightgreen", 0xff90ee90);
+        sNamedColors.put("lightgrey", 0xffd3d3d3);
+        sNamedColors.put("lightpink", 0xffffb6c1);
+        sNamedColors.put("lightsalmon", 0xffffa07a);
+        sNamedColors.put("lightseagreen", 0xff20b2aa);
+        sNamedColors.put("lightskyblue", 0xff87cefa);
+        sNamedColors.put("lightslategray", 0xff778899);
+        sNamedColors.put("lightslategrey", 0xff778899);
+        sNamedColors.put("lightsteelblue", 0xffb0c4de);
+        sNamedColors.put("lightyellow", 0xffffffe0);
+        sNamedColors.put("lime", 0xff00ff00);
+        sNamedColors.put("limegreen", 0xff32cd32);
+        sNamedColors.put("linen", 0xfffaf0e6);
+        sNamedColors.put("magenta", 0xffff00ff);
+        sNamedColors.put("maroon", 0xff800000);
+        sNamedColors.put("mediumaquamarine", 0xff66cdaa);
+        sNamedColors.put("mediumblue", 0xff0000cd);
+        sNamedColors.put("mediumorchid", 0xffba55d3);
+        sNamedColors.put("mediumpurple", 0xff9370db);
+        sNamedColors.put("mediumseagreen", 0xff3cb371);
+        sNamedColors.put("mediumslateblue", 0xff7b68ee);
+        sNamedColors.put("mediumspringgreen", 0xff00fa9a);
+        sNamedColors.put("mediumturquoise", 0xff48d1cc);
+        sNamedColors.put("mediumvioletred", 0xffc71585);
+        sNamedColors.put("midnightblue", 0xff191970);
+        sNamedColors.put("mintcream", 0xfff5fffa);
+        sNamedColors.put("mistyrose", 0xffffe4e1);
+        sNamedColors.put("moccasin", 0xffffe4b5);
+        sNamedColors.put("navajowhite", 0xffffdead);
+        sNamedColors.put("navy", 0xff000080);
+        sNamedColors.put("oldlace", 0xfffdf5e6);
+        sNamedColors.put("olive", 0xff808000);
+        sNamedColors.put("olivedrab", 0xff6b8e23);
+        sNamedColors.put("orange", 0xffffa500);
+        sNamedColors.put("orangered", 0xffff4500);
+        sNamedColors.put("orchid", 0xffda70d6);
+        sNamedColors.put("palegoldenrod", 0xffeee8aa);
+        sNamedColors.put("palegreen", 0xff98fb98);
+        sNamedColors.put("paleturquoise", 0xffafeeee);
+        sNamedColors.put("palevioletred", 0xffdb7093);
+        sNamedColors.put("papayawhip", 0xffffefd5);
+        sNamedColors.put("peachpuff", 0xffffdab9);
+        sNamedColors.put("peru", 0xffcd853f);
+        sNamedColors.put("pink", 0xffffc0cb);
+        sNamedColors.put("plum", 0xffdda0dd);
+        sNamedColors.put("powderblue", 0xffb0e0e6);
+        sNamedColors.put("purple", 0xff800080);
+        sNamedColors.put("rebeccapurple", 0xff663399);
+        sNamedColors.put("red", 0xffff0000);
+        sNamedColors.put("rosybrown", 0xffbc8f8f);
+        sNamedColors.put("royalblue", 0xff4169e1);
+        sNamedColors.put("saddlebrown", 0xff8b4513);
+        sNamedColors.put("salmon", 0xfffa8072);
+        sNamedColors.put("sandybrown", 0xfff4a460);
+        sNamedColors.put("seagreen", 0xff2e8b57);
+        sNamedColors.put("seashell", 0xfffff5ee);
+        sNamedColors.put("sienna", 0xffa0522d);
+        sNamedColors.put("silver", 0xffc0c0c0);
+        sNamedColors.put("skyblue", 0xff87ceeb);
+        sNamedColors.put("slateblue", 0xff6a5acd);
+        sNamedColors.put("slategray", 0xff708090);
+        sNamedColors.put("slategrey", 0xff708090);
+        sNamedColors.put("snow", 0xfffffafa);
+        sNamedColors.put("springgreen", 0xff00ff7f);
+        sNamedColors.put("steelblue", 0xff4682b4);
+        sNamedColors.put("tan", 0xffd2b48c);
+        sNamedColors.put("teal", 0xff008080);
+        sNamedColors.put("thistle", 0xffd8bfd8);
+        sNamedColors.put("tomato", 0xffff6347);
+        sNamedColors.put("turquoise", 0xff40e0d0);
+        sNamedColors.put("violet", 0xffee82ee);
+        sNamedColors.put("wheat", 0xfff5deb3);
+        sNamedColors.put("white", 0xffffffff);
+        sNamedColors.put("whitesmoke", 0xfff5f5f5);
+        sNamedColors.put("yellow", 0xffffff00);
+        sNamedColors.put("yellowgreen", 0xff9acd32);
+    }
+
+    private CssColors() {
+    }
+
+    /**
+     * @return the ARGB color
+     * @throws IllegalArgumentException if string is not a color
+     */
+    public static int parse(@NonNull String colorString) throws IllegalArgumentException {
+        Integer color;
+        synchronized (sCache) {
+            color = sCache.get(colorString);
+        }
+
+        if (color != null) {
+            return color;
+        }
+
+        int parsed = parseInternal(colorString.trim());
+        synchronized (sCache) {
+            sCache.put(colorString, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * @return whether string looks like a color, without parsing it
+     */
+    public static boolean isColor(@NonNull String string) {
+        return string.startsWith("#") || string.startsWith("rgb") || string.startsWith("hsl") ||
+                sNamedColors.containsKey(string.toLowerCase());
+    }
+
+    public static boolean isColorName(@NonNull String string) {
+        return sNamedColors.containsKey(string.toLowerCase());
+    }
+
+    private static int parseInternal(String s) {
+        if (s.isEmpty()) {
+            throw new IllegalArgumentException("empty color string");
+        }
+
+        if (s.charAt(0) == '#') {
+            return parseHex(s);
+        }
+
+        String lower = s.toLowerCase();
+        int paren = lower.indexOf('(');
+        if (paren > 0 && lower.charAt(lower.length() - 1) == ')') {
+            String function = lower.substring(0, paren).trim();
+            String[] args = lower.substring(paren + 1, lower.length() - 1).split("[,/\\s]+");
+            args = trimEmpty(args);
+
+            switch (function) {
+                case "rgb":
+                case "rgba":
+                    return parseRgb(args, s);
+                case "hsl":
+                case "hsla":
+                    return parseHsl(args, s);
+                default:
+                    throw new IllegalArgumentException("unknown color function " + s);
+            }
+        }
+
+        Integer named = sNamedColors.get(lower);
+        if (named != null) {
+            return named;
+        }
+
+        throw new IllegalArgumentException("unknown color " + s);
+    }
+
+    private static int parseHex(String s) {
+        int length = s.length() - 1;
+        long value = 0;
+        for (int i = 1; i < s.length(); i++) {
+            int digit = Character.digit(s.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("unknown color " + s);
+            }
+            value = (value << 4) | digit;
+        }
+
+        switch (length) {
+            case 3:
+                // #RGB
+                return 0xff000000 | (int) expand(value, 3);
+            case 4:
+                // #ARGB
+                return (int) expand(value, 4);
+            case 6:
+                // #RRGGBB
+                return 0xff000000 | (int) value;
+            case 8:
+                // #AARRGGBB
+                return (int) value;
+            default:
+                throw new IllegalArgumentException("unknown color " + s);
+        }
+    }
+
+    /**
+     * expand each hex digit to two, i.e. 0xf0a to 0xff00aa.
+     */
+    private static long expand(long value, int digits) {
+        long result = 0;
+        for (int i = digits - 1; i >= 0; i--) {
+            long digit = (value >> (i * 4)) & 0xf;
+            result = (result << 8) | (digit << 4) | digit;
+        }
+        return result;
+    }
+
+    private static int parseRgb(String[] args, String s) {
+        if (args.length != 3 && args.length != 4) {
+            throw new IllegalArgumentException("wrong arguments of color " + s);
+        }
+
+        int r = channel(args[0]);
+        int g = channel(args[1]);
+        int b = channel(args[2]);
+        int a = args.length == 4 ? alpha(args[3]) : 0xff;
+        return argb(a, r, g, b);
+    }
+
+    private static int parseHsl(String[] args, String s) {
+        if (args.length != 3 && args.length != 4) {
+            throw new IllegalArgumentException("wrong arguments of color " + s);
+        }
+
+        float h = number(args[0].endsWith("deg") ? args[0].substring(0, args[0].length() - 3)
+                : args[0]);
+        h = ((h % 360) + 360) % 360 / 360f;
+        float sat = clamp(percent(args[1]));
+        float light = clamp(percent(args[2]));
+        int a = args.length == 4 ? alpha(args[3]) : 0xff;
+
+        float q = light < 0.5f ? light * (1 + sat) : light + sat - light * sat;
+        float p = 2 * light - q;
+
+        int r = Math.round(hueToRgb(p, q, h + 1f / 3) * 255);
+        int g = Math.round(hueToRgb(p, q, h) * 255);
+        int b = Math.round(hueToRgb(p, q, h - 1f / 3) * 255);
+        return argb(a, r, g, b);
+    }
+
+    private static float hueToRgb(float p, float q, float t) {
+        if (t < 0) {
+            t += 1;
+        }
+        if (t > 1) {
+            t -= 1;
+        }
+        if (t < 1f / 6) {
+            return p + (q - p) * 6 * t;
+        }
+        if (t < 1f / 2) {
+            return q;
+        }
+        if (t < 2f / 3) {
+            return p + (q - p) * (2f / 3 - t) * 6;
+        }
+        return p;
+    }
+
+    /**
+     * rgb channel, either 0-255 or percentage.
+     */
+    private static int channel(String arg) {
+        if (arg.endsWith("%")) {
+            return Math.round(clamp(percent(arg)) * 255);
+        }
+        return Math.max(0, Math.min(255, Math.round(number(arg))));
+    }
+
+    /**
+     * alpha channel, either 0-1 or percentage.
+     */
+    private static int alpha(String arg) {
+        float alpha = arg.endsWith("%") ? percent(arg) : number(arg);
+        return Math.round(clamp(alpha) * 255);
+    }
+
+    private static float percent(String arg) {
+        if (!arg.endsWith("%")) {
+            throw new IllegalArgumentException("not a percentage " + arg);
+        }
+        return number(arg.substring(0, arg.length() - 1)) / 100f;
+    }
+
+    private static float number(String arg) {
+        try {
+            return Float.parseFloat(arg);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number " + arg, e);
+        }
+    }
+
+    private static float clamp(float f) {
+        return Math.max(0f, Math.min(1f, f));
+    }
+
+    private static int argb(int a, int r, int g, int b) {
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static String[] trimEmpty(String[] args) {
+        if (args.length > 0 && args[0].isEmpty()) {
+            String[] trimmed = new String[args.length - 1];
+            System.arraycopy(args, 1, trimmed, 0, trimmed.length);
+            return trimmed;
+        }
+        return args;
+    }
+}
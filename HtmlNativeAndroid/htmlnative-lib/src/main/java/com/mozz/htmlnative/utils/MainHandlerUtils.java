@@ -30,6 +30,17 @@ public final class MainHandlerUtils {
         mHandler.post(r);
     }
 
+    /**
+     * Run r at once if current thread is main thread, otherwise post it to main thread.
+     */
+    public void runOnMainThread(Runnable r) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            r.run();
+        } else {
+            mHandler.post(r);
+        }
+    }
+
     @NonNull
     private static MainHandlerUtils sInstance = new MainHandlerUtils();
 
@@ -5,11 +5,12 @@ import android.graphics.Color;
 import android.support.annotation.NonNull;
 import android.util.TypedValue;
 
+import com.mozz.htmlnative.common.ColorValue;
 import com.mozz.htmlnative.common.ContextProvider;
 import com.mozz.htmlnative.common.PixelValue;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Yang Tao, 17/2/24.
@@ -17,38 +18,8 @@ import java.util.Set;
 
 public final class ParametersUtils {
 
-    private static final Set<String> sColorNameMap;
-
     private static final int DEFAULT_COLOR = Color.TRANSPARENT;
 
-    static {
-        sColorNameMap = new HashSet<>();
-        sColorNameMap.add("black");
-        sColorNameMap.add("darkgray");
-        sColorNameMap.add("gray");
-        sColorNameMap.add("lightgray");
-        sColorNameMap.add("white");
-        sColorNameMap.add("red");
-        sColorNameMap.add("green");
-        sColorNameMap.add("blue");
-        sColorNameMap.add("yellow");
-        sColorNameMap.add("cyan");
-        sColorNameMap.add("magenta");
-        sColorNameMap.add("aqua");
-        sColorNameMap.add("fuchsia");
-        sColorNameMap.add("darkgrey");
-        sColorNameMap.add("grey");
-        sColorNameMap.add("lightgrey");
-        sColorNameMap.add("lime");
-        sColorNameMap.add("maroon");
-        sColorNameMap.add("navy");
-        sColorNameMap.add("olive");
-        sColorNameMap.add("purple");
-        sColorNameMap.add("silver");
-        sColorNameMap.add("teal");
-
-    }
-
     private ParametersUtils() {
     }
 
@@ -200,41 +171,16 @@ public final class ParametersUtils {
     }
 
     public static int toColor(@NonNull Object colorObj) throws ParametersParseException {
+        if (colorObj instanceof ColorValue) {
+            return ((ColorValue) colorObj).getColor();
+        }
+
         String colorString = colorObj.toString().trim();
         if (colorString.length() == 0) {
             throw new ParametersParseException("empty color string for parse");
         }
 
-        // handle the #* like color
-        if (colorString.charAt(0) == '#') {
-
-            // handle the #000000 like color string
-            if (colorString.length() == 7 || colorString.length() == 9) {
-                return Color.parseColor(colorString);
-            } else if (colorString.length() == 4) {
-                long color = 0;
-                for (int i = 0; i < 3; i++) {
-                    char c = colorString.charAt(i + 1);
-                    int cI;
-                    if (c >= 'a' && c <= 'z') {
-                        cI = c - 'a' + 10;
-                    } else if (c >= 'A' && c <= 'Z') {
-                        cI = c - 'A' + 10;
-                    } else if (c >= '0' && c <= '9') {
-                        cI = c - '0';
-                    } else {
-                        throw new ParametersParseException("unknown color string " + colorString);
-                    }
-
-                    color |= (cI * 16 + cI) << (3 - i - 1) * 8;
-                }
-
-                return (int) (color | 0x00000000ff000000);
-            } else {
-                throw new ParametersParseException("unknown color string " + colorString);
-            }
-
-        } else if (colorString.charAt(0) == '@' && colorString.length() > 1) {
+        if (colorString.charAt(0) == '@' && colorString.length() > 1) {
             String colorRes = colorString.substring(1);
             Context context = ContextProvider.getApplicationRef();
             if (context != null) {
@@ -243,16 +189,11 @@ public final class ParametersUtils {
                 return DEFAULT_COLOR;
             }
         } else {
-            /**
-             handle the color like 'red', 'green' ect. see {@link https://www.w3.org/TR/CSS2/syndata
-            .html#tokenization}
-             */
             try {
-                return Color.parseColor(colorString);
+                return CssColors.parse(colorString);
             } catch (IllegalArgumentException e) {
                 throw new ParametersParseException(e);
             }
-
         }
     }
 
@@ -261,7 +202,7 @@ public final class ParametersUtils {
     }
 
     public static boolean isHtmlColorString(String string) {
-        return sColorNameMap.contains(string);
+        return CssColors.isColorName(string);
     }
 
     public static float dpToPx(float dp) {
@@ -301,7 +242,28 @@ public final class ParametersUtils {
     }
 
     public static String[] splitByEmpty(String s) {
-        return s.trim().split("\\s+");
+        List<String> parts = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isWhitespace(s.charAt(i))) {
+                if (start != -1) {
+                    parts.add(s.substring(start, i));
+                    start = -1;
+                }
+            } else if (start == -1) {
+                start = i;
+            }
+        }
+
+        if (start != -1) {
+            parts.add(s.substring(start));
+        }
+
+        // same as String.split, blank string gives one empty part
+        if (parts.isEmpty()) {
+            return new String[]{""};
+        }
+        return parts.toArray(new String[parts.size()]);
     }
 
     public static class ParametersParseException extends Exception {
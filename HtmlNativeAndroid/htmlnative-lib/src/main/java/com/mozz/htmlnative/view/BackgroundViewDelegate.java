@@ -31,6 +31,17 @@ public final class BackgroundViewDelegate {
         mIsSrc = isSrc;
     }
 
+    public View getView() {
+        return mView;
+    }
+
+    /**
+     * @return true if the image is the src of img, otherwise it is a background
+     */
+    public boolean isSrc() {
+        return mIsSrc;
+    }
+
     public void setBitmap(Bitmap bitmap) {
         if (mView instanceof ImageView && mIsSrc) {
             ImageView imageView = (ImageView) mView;
@@ -0,0 +1,239 @@
+package com.mozz.htmlnative.view;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.Shader;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mozz.htmlnative.css.Background;
+
+/**
+ * Drawable of {@link Background}, with a color layer and an image layer. It is installed as the
+ * background of host view, so that it is drawn and cached by the platform together with the view
+ * rather than in {@link android.view.View#onDraw(Canvas)}.
+ * <p>
+ * Geometry of both layers is computed when bounds or content changes, drawing neither allocates
+ * nor computes. Repeated bitmaps are tiled by a {@link BitmapShader}, which is created once for
+ * each bitmap, and only its local matrix is updated when size changes.
+ *
+ * @author Yang Tao, 17/7/28.
+ */
+
+final class HNBackgroundDrawable extends Drawable {
+
+    private final Paint mColorPaint = new Paint();
+    private final Paint mBitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mBitmapRect = new Rect();
+
+    /**
+     * area filled by the bitmap shader when background repeats
+     */
+    private final Rect mTileRect = new Rect();
+    private final Matrix mShaderMatrix = new Matrix();
+    private BitmapShader mShader;
+
+    private Background mBackground;
+    private Bitmap mBitmap;
+    private Drawable mDrawable;
+
+    private int mLeft, mTop, mWidth, mHeight;
+    private int mColorLeft, mColorTop, mColorWidth, mColorHeight;
+
+    void setContent(@NonNull Background background, @Nullable Bitmap bitmap, @Nullable Drawable
+            drawable) {
+        if (bitmap != mBitmap || (mBackground != null && mBackground.getRepeat() != background
+                .getRepeat())) {
+            mShader = null;
+        }
+
+        mBackground = background;
+        mBitmap = bitmap;
+        mDrawable = drawable;
+
+        if (mShader == null && bitmap != null && background.getRepeat() != Background
+                .NO_REPEAT) {
+            // the direction not repeated is limited by mTileRect, so clamp is never visible
+            Shader.TileMode tileX = background.getRepeat() == Background.REPEAT_Y ? Shader
+                    .TileMode.CLAMP : Shader.TileMode.REPEAT;
+            Shader.TileMode tileY = background.getRepeat() == Background.REPEAT_X ? Shader
+                    .TileMode.CLAMP : Shader.TileMode.REPEAT;
+            mShader = new BitmapShader(bitmap, tileX, tileY);
+        }
+        mBitmapPaint.setShader(mShader);
+        mColorPaint.setColor(background.isColorSet() ? background.getColor() : Color
+                .TRANSPARENT);
+
+        computeGeometry(getBounds());
+        invalidateSelf();
+    }
+
+    /**
+     * Drop the content, so that nothing is drawn and the bitmap is no longer referenced.
+     */
+    void clear() {
+        mBackground = null;
+        mBitmap = null;
+        mDrawable = null;
+        mShader = null;
+        mBitmapPaint.setShader(null);
+        invalidateSelf();
+    }
+
+    Background getBackground() {
+        return mBackground;
+    }
+
+    /**
+     * @return whether there is nothing but a color covering the whole view.
+     */
+    boolean isColorOnly() {
+        return mBitmap == null && mDrawable == null && mBackground != null && mBackground
+                .getColorWidthMode() == Background.PERCENTAGE && mBackground.getColorWidth() >=
+                1.f && mBackground.getColorHeightMode() == Background.PERCENTAGE && mBackground
+                .getColorHeight() >= 1.f;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        computeGeometry(bounds);
+    }
+
+    private void computeGeometry(Rect bounds) {
+        if (mBackground == null || bounds == null) {
+            return;
+        }
+
+        Background background = mBackground;
+        int hostWidth = bounds.width();
+        int hostHeight = bounds.height();
+
+        if (background.getXMode() == Background.LENGTH) {
+            mLeft = (int) background.getX();
+        } else {
+            mLeft = (int) (background.getX() * hostWidth);
+        }
+
+        if (background.getYMode() == Background.LENGTH) {
+            mTop = (int) background.getY();
+        } else {
+            mTop = (int) (background.getY() * hostHeight);
+        }
+
+        if (background.getWidthMode() == Background.LENGTH) {
+            mWidth = (int) background.getWidth();
+        } else if (background.getWidthMode() == Background.AUTO && mBitmap != null) {
+            mWidth = mBitmap.getWidth();
+        } else if (background.getWidthMode() == Background.PERCENTAGE) {
+            mWidth = (int) (background.getWidth() * hostWidth);
+        } else {
+            mWidth = hostWidth;
+        }
+
+        if (background.getHeightMode() == Background.LENGTH) {
+            mHeight = (int) background.getHeight();
+        } else if (background.getHeightMode() == Background.AUTO && mBitmap != null) {
+            mHeight = mBitmap.getHeight();
+        } else if (background.getHeightMode() == Background.PERCENTAGE) {
+            mHeight = (int) (background.getHeight() * hostHeight);
+        } else {
+            mHeight = hostHeight;
+        }
+
+        if (background.getColorWidthMode() == Background.LENGTH) {
+            mColorWidth = (int) background.getColorWidth();
+        } else if (background.getColorWidthMode() == Background.PERCENTAGE) {
+            mColorWidth = (int) (background.getColorWidth() * hostWidth);
+        } else {
+            mColorWidth = hostWidth;
+        }
+
+        if (background.getColorHeightMode() == Background.LENGTH) {
+            mColorHeight = (int) background.getColorHeight();
+        } else if (background.getColorHeightMode() == Background.PERCENTAGE) {
+            mColorHeight = (int) (background.getColorHeight() * hostHeight);
+        } else {
+            mColorHeight = hostHeight;
+        }
+
+        mColorLeft = bounds.left;
+        mColorTop = bounds.top;
+        mLeft += bounds.left;
+        mTop += bounds.top;
+
+        mBitmapRect.set(mLeft, mTop, mLeft + mWidth, mTop + mHeight);
+        if (mDrawable != null) {
+            mDrawable.setBounds(mBitmapRect);
+        }
+
+        if (mShader != null) {
+            computeTile(bounds);
+        }
+    }
+
+    private void computeTile(Rect bounds) {
+        int repeat = mBackground.getRepeat();
+        mTileRect.set(repeat == Background.REPEAT_Y ? mLeft : bounds.left, repeat == Background
+                .REPEAT_X ? mTop : bounds.top, repeat == Background.REPEAT_Y ? mLeft + mWidth :
+                bounds.right, repeat == Background.REPEAT_X ? mTop + mHeight : bounds.bottom);
+
+        // one tile has the size of the background image, and starts at background position
+        float scaleX = mBitmap.getWidth() > 0 ? (float) mWidth / mBitmap.getWidth() : 1.f;
+        float scaleY = mBitmap.getHeight() > 0 ? (float) mHeight / mBitmap.getHeight() : 1.f;
+        mShaderMatrix.setScale(scaleX, scaleY);
+        mShaderMatrix.postTranslate(mLeft, mTop);
+        mShader.setLocalMatrix(mShaderMatrix);
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (mBackground == null) {
+            return;
+        }
+
+        if (mBackground.isColorSet()) {
+            canvas.drawRect(mColorLeft, mColorTop, mColorLeft + mColorWidth, mColorTop +
+                    mColorHeight, mColorPaint);
+        }
+
+        if (mShader != null) {
+            canvas.drawRect(mTileRect, mBitmapPaint);
+        } else if (mBitmap != null) {
+            canvas.drawBitmap(mBitmap, null, mBitmapRect, mBitmapPaint);
+        } else if (mDrawable != null) {
+            mDrawable.draw(canvas);
+        }
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        mColorPaint.setAlpha(alpha);
+        mBitmapPaint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mColorPaint.setColorFilter(colorFilter);
+        mBitmapPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        if (isColorOnly() && mBackground.isColorSet() && Color.alpha(mBackground.getColor()) ==
+                255) {
+            return PixelFormat.OPAQUE;
+        }
+        return PixelFormat.TRANSLUCENT;
+    }
+}
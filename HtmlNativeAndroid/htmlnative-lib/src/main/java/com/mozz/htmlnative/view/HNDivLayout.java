@@ -2,7 +2,6 @@ package com.mozz.htmlnative.view;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
 import android.support.annotation.IntDef;
 import android.util.AttributeSet;
@@ -23,7 +22,7 @@ import java.util.Map;
  * @author Yang Tao, 17/4/18.
  */
 
-public class HNDivLayout extends ViewGroup implements IBackgroundView {
+public class HNDivLayout extends ViewGroup implements IBackgroundView, IRecyclableView {
 
     private List<Integer> mLineIndexes = new ArrayList<>();
     private List<View> mFloatViews = new LinkedList<>();
@@ -253,6 +252,13 @@ public class HNDivLayout extends ViewGroup implements IBackgroundView {
         return mSavedInheritStyles.get(styleName);
     }
 
+    @Override
+    public void onRecycle() {
+        removeAllViews();
+        mSavedInheritStyles.clear();
+        mBackgroundMgr.reset();
+    }
+
     @Override
     protected ViewGroup.LayoutParams generateDefaultLayoutParams() {
         return new HNDivLayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams
@@ -276,13 +282,9 @@ public class HNDivLayout extends ViewGroup implements IBackgroundView {
     @Override
     public void setBackground(Drawable background) {
         // don't support the background!! Use setHtmlBackground instead
-    }
-
-    @Override
-    protected void onDraw(Canvas canvas) {
-        mBackgroundMgr.onDraw(canvas);
-        super.onDraw(canvas);
-
+        if (background instanceof HNBackgroundDrawable) {
+            super.setBackground(background);
+        }
     }
 
     @Override
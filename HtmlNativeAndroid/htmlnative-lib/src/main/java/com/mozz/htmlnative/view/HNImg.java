@@ -2,7 +2,6 @@ package com.mozz.htmlnative.view;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
 import android.widget.ImageView;
@@ -13,7 +12,7 @@ import com.mozz.htmlnative.css.Background;
  * @author Yang Tao, 17/5/18.
  */
 
-public class HNImg extends ImageView implements IBackgroundView {
+public class HNImg extends ImageView implements IBackgroundView, IRecyclableView {
     private BackgroundManager mBackgroundMgr;
 
     public HNImg(Context context) {
@@ -36,6 +35,15 @@ public class HNImg extends ImageView implements IBackgroundView {
         mBackgroundMgr = new BackgroundManager(this);
     }
 
+    @Override
+    public void onRecycle() {
+        setImageDrawable(null);
+        // set by BackgroundViewDelegate#setBitmap for src
+        setAdjustViewBounds(false);
+        setImageMatrix(null);
+        mBackgroundMgr.reset();
+    }
+
     @Override
     public void setHtmlBackground(Bitmap bitmap, Background background) {
         mBackgroundMgr.setHtmlBackground(bitmap, background);
@@ -50,10 +58,4 @@ public class HNImg extends ImageView implements IBackgroundView {
     public Background getHtmlBackground() {
         return mBackgroundMgr.getHtmlBackground();
     }
-
-    @Override
-    protected void onDraw(Canvas canvas) {
-        mBackgroundMgr.onDraw(canvas);
-        super.onDraw(canvas);
-    }
 }
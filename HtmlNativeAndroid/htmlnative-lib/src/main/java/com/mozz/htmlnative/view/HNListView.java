@@ -0,0 +1,24 @@
+package com.mozz.htmlnative.view;
+
+import android.content.Context;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * View of {@code <list>}. The only child of list is the template of item, which is rendered
+ * for each visible item and recycled when scrolled out, see
+ * {@link com.mozz.htmlnative.HNListAdapter}.
+ * <p>
+ * List scrolls by itself, so it should declare a height, otherwise all the items are laid out
+ * at once like in a scroller.
+ *
+ * @author Yang Tao, 17/8/4.
+ */
+
+public class HNListView extends RecyclerView {
+
+    public HNListView(Context context) {
+        super(context);
+        setLayoutManager(new LinearLayoutManager(context));
+    }
+}
@@ -9,6 +9,8 @@ import android.view.ViewGroup;
 import android.widget.FrameLayout;
 import android.widget.ScrollView;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,6 +25,8 @@ public final class HNRootView extends ScrollView {
 
     private FrameLayout mContentView;
 
+    private final List<OnViewportChangedListener> mViewportListeners = new ArrayList<>();
+
     public HNRootView(@NonNull Context context) {
         super(context);
         mContentView = new FrameLayout(context);
@@ -34,6 +38,38 @@ public final class HNRootView extends ScrollView {
         mContentView.addView(v, layoutParams);
     }
 
+    /**
+     * Listen to the changes of visible area, that is scrolling and laying out of this.
+     */
+    public void addOnViewportChangedListener(@NonNull OnViewportChangedListener listener) {
+        if (!mViewportListeners.contains(listener)) {
+            mViewportListeners.add(listener);
+        }
+    }
+
+    public void removeOnViewportChangedListener(@NonNull OnViewportChangedListener listener) {
+        mViewportListeners.remove(listener);
+    }
+
+    private void dispatchViewportChanged(int scrollY) {
+        // backwards, so that a listener can remove itself
+        for (int i = mViewportListeners.size() - 1; i >= 0; i--) {
+            mViewportListeners.get(i).onViewportChanged(this, scrollY, getHeight());
+        }
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        dispatchViewportChanged(t);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        dispatchViewportChanged(getScrollY());
+    }
+
     public View findViewById(@NonNull String id) {
         return mViewWithId.get(id);
     }
@@ -55,5 +91,16 @@ public final class HNRootView extends ScrollView {
         return mViewWithId.containsKey(id);
     }
 
+    public interface OnViewportChangedListener {
+        /**
+         * Called in layout or scroll pass, so the listener should not change the view tree
+         * here directly, but post it instead.
+         *
+         * @param scrollY        top of the visible area in content
+         * @param viewportHeight height of the visible area
+         */
+        void onViewportChanged(HNRootView rootView, int scrollY, int viewportHeight);
+    }
+
 
 }
@@ -1,47 +1,48 @@
 package com.mozz.htmlnative.view;
 
 import android.content.Context;
+import android.content.res.ColorStateList;
 import android.graphics.Bitmap;
-import android.graphics.Canvas;
+import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
 import android.widget.TextView;
 
 import com.mozz.htmlnative.css.Background;
+import com.mozz.htmlnative.css.TextAppearance;
 
 /**
  * @author Yang Tao, 17/5/9.
  */
-public class HNText extends TextView implements IBackgroundView {
+public class HNText extends TextView implements IBackgroundView, IRecyclableView {
     private BackgroundManager mBackgroundMgr;
+    private final TextViewDefaults mDefaults;
+    private TextAppearance mTextAppearance;
 
     public HNText(Context context) {
         super(context);
         mBackgroundMgr = new BackgroundManager(this);
+        mDefaults = TextViewDefaults.of(this);
     }
 
     public HNText(Context context, AttributeSet attrs) {
         super(context, attrs);
         mBackgroundMgr = new BackgroundManager(this);
+        mDefaults = TextViewDefaults.of(this);
     }
 
     public HNText(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
         mBackgroundMgr = new BackgroundManager(this);
+        mDefaults = TextViewDefaults.of(this);
     }
 
     public HNText(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         super(context, attrs, defStyleAttr, defStyleRes);
         mBackgroundMgr = new BackgroundManager(this);
+        mDefaults = TextViewDefaults.of(this);
     }
 
-    @Override
-    protected void onDraw(Canvas canvas) {
-        mBackgroundMgr.onDraw(canvas);
-        super.onDraw(canvas);
-    }
-
-
     @Override
     public void setHtmlBackground(Bitmap bitmap, Background background) {
         mBackgroundMgr.setHtmlBackground(bitmap, background);
@@ -56,4 +57,64 @@ public class HNText extends TextView implements IBackgroundView {
     public Background getHtmlBackground() {
         return mBackgroundMgr.getHtmlBackground();
     }
+
+    @Override
+    public void onRecycle() {
+        mDefaults.restore(this);
+        mBackgroundMgr.reset();
+        mTextAppearance = null;
+    }
+
+    /**
+     * Apply the TextAppearance, it is skipped if an equal one is applied already.
+     */
+    public void setHtmlTextAppearance(TextAppearance appearance) {
+        if (appearance == null || appearance.equals(mTextAppearance)) {
+            return;
+        }
+        appearance.applyTo(this);
+        mTextAppearance = appearance;
+    }
+
+    public TextAppearance getHtmlTextAppearance() {
+        return mTextAppearance;
+    }
+
+    // Below setters make the view differ from mTextAppearance, so forget it.
+
+    @Override
+    public void setTextSize(int unit, float size) {
+        super.setTextSize(unit, size);
+        mTextAppearance = null;
+    }
+
+    @Override
+    public void setTextColor(int color) {
+        super.setTextColor(color);
+        mTextAppearance = null;
+    }
+
+    @Override
+    public void setTextColor(ColorStateList colors) {
+        super.setTextColor(colors);
+        mTextAppearance = null;
+    }
+
+    @Override
+    public void setTypeface(Typeface tf) {
+        super.setTypeface(tf);
+        mTextAppearance = null;
+    }
+
+    @Override
+    public void setLineSpacing(float add, float mult) {
+        super.setLineSpacing(add, mult);
+        mTextAppearance = null;
+    }
+
+    @Override
+    public void setGravity(int gravity) {
+        super.setGravity(gravity);
+        mTextAppearance = null;
+    }
 }
@@ -0,0 +1,18 @@
+package com.mozz.htmlnative.view;
+
+/**
+ * View which can be reset and reused by the view pool of engine, see
+ * {@link com.mozz.htmlnative.HNativeEngine#recycleView(android.view.View)}.
+ *
+ * @author Yang Tao, 17/8/5.
+ */
+
+public interface IRecyclableView {
+
+    /**
+     * Reset the states set by styles to the ones right after constructed, and drop the content,
+     * such as text, image and background. Layout params are not reset, as a reused view is
+     * always added with new ones.
+     */
+    void onRecycle();
+}
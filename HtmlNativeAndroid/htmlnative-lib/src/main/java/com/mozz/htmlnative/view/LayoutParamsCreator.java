@@ -1,5 +1,6 @@
 package com.mozz.htmlnative.view;
 
+import android.support.v7.widget.RecyclerView;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -111,6 +112,8 @@ public class LayoutParamsCreator {
             return creator.toMarginLayoutParams();
         } else if (parent instanceof FlexboxLayout) {
             return creator.toFlexLayoutParams();
+        } else if (parent instanceof RecyclerView) {
+            return new RecyclerView.LayoutParams(creator.toMarginLayoutParams());
         } else {
             throw new IllegalArgumentException("can't create related layoutParams, unknown " +
                     "view type " + parent.toString());
@@ -0,0 +1,110 @@
+package com.mozz.htmlnative.view;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.support.annotation.AnyThread;
+import android.support.annotation.NonNull;
+import android.text.Layout;
+import android.text.SpannedString;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.widget.TextView;
+
+import com.mozz.htmlnative.HNLog;
+
+/**
+ * Lay out the text of a TextView once on a background thread, right after its styles are
+ * resolved. The glyphs and word widths measured here are kept in the framework's shared text
+ * layout cache, so the first measure on the UI thread mostly hits the cache instead of shaping
+ * the text again.
+ * <p>
+ * TextView keeps its Layout private before PrecomputedText(API 28), so the StaticLayout built here
+ * is only used for warming up and then dropped. Off by default, see
+ * {@link com.mozz.htmlnative.HNConfig.Builder#setPreMeasureText(boolean)}.
+ *
+ * @author Yang Tao, 17/7/30.
+ */
+
+public final class TextPreMeasurer {
+
+    private static final String TAG = TextPreMeasurer.class.getSimpleName();
+
+    /**
+     * text of a list item template is replaced when bound, so measuring it is wasted
+     */
+    private static final String BINDING_START = "{{";
+
+    private static Handler sHandler;
+
+    private TextPreMeasurer() {
+
+    }
+
+    /**
+     * Snapshot the text and paint of textView and lay them out in background.
+     *
+     * @param layoutWidth width of textView in px if it is known, MATCH_PARENT or WRAP_CONTENT
+     *                    falls back to width of screen
+     */
+    @AnyThread
+    public static void preMeasure(@NonNull TextView textView, int layoutWidth) {
+        CharSequence text = textView.getText();
+        if (TextUtils.isEmpty(text) || text.toString().contains(BINDING_START)) {
+            return;
+        }
+
+        int width = layoutWidth > 0 ? layoutWidth : textView.getContext().getResources()
+                .getDisplayMetrics().widthPixels;
+        width -= textView.getTotalPaddingLeft() + textView.getTotalPaddingRight();
+        if (width <= 0) {
+            return;
+        }
+
+        // the paint and the text may be changed by UI thread later, so take a copy of them
+        final TextPaint paint = new TextPaint();
+        paint.set(textView.getPaint());
+
+        // keep the spans, bold or sized spans change the widths of glyphs
+        final CharSequence snapshot = new SpannedString(text);
+        final int availableWidth = width;
+        final float spacingAdd = textView.getLineSpacingExtra();
+        final float spacingMult = textView.getLineSpacingMultiplier();
+        final boolean includePad = textView.getIncludeFontPadding();
+
+        handler().post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    StaticLayout.Builder.obtain(snapshot, 0, snapshot.length(), paint,
+                            availableWidth).setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                            .setLineSpacing(spacingAdd, spacingMult).setIncludePad(includePad)
+                            .build();
+                } catch (RuntimeException e) {
+                    HNLog.e(HNLog.RENDER, TAG + " fails to measure text, " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Quit the background thread, it is started again by next {@link #preMeasure(TextView, int)}.
+     */
+    public static synchronized void quit() {
+        if (sHandler != null) {
+            sHandler.getLooper().quit();
+            sHandler = null;
+        }
+    }
+
+    private static synchronized Handler handler() {
+        if (sHandler == null) {
+            HandlerThread thread = new HandlerThread("HNTextMeasure", Process
+                    .THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            sHandler = new Handler(thread.getLooper());
+        }
+        return sHandler;
+    }
+}
@@ -0,0 +1,65 @@
+package com.mozz.htmlnative.view;
+
+import android.content.res.ColorStateList;
+import android.graphics.Typeface;
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+import android.text.method.TransformationMethod;
+import android.widget.TextView;
+
+/**
+ * Text states of a TextView right after constructed, which styles may change. Used to reset
+ * a TextView before it is reused.
+ *
+ * @author Yang Tao, 17/8/5.
+ */
+
+public final class TextViewDefaults {
+
+    private final ColorStateList mTextColors;
+    private final ColorStateList mLinkTextColors;
+    private final Typeface mTypeface;
+    private final int mGravity;
+    private final float mLineSpacingExtra;
+    private final float mLineSpacingMultiplier;
+    private final int mPaintFlags;
+    private final TextUtils.TruncateAt mEllipsize;
+    private final float mLetterSpacing;
+    private final TransformationMethod mTransformationMethod;
+
+    private TextViewDefaults(TextView textView) {
+        mTextColors = textView.getTextColors();
+        mLinkTextColors = textView.getLinkTextColors();
+        mTypeface = textView.getTypeface();
+        mGravity = textView.getGravity();
+        mLineSpacingExtra = textView.getLineSpacingExtra();
+        mLineSpacingMultiplier = textView.getLineSpacingMultiplier();
+        mPaintFlags = textView.getPaintFlags();
+        mEllipsize = textView.getEllipsize();
+        mLetterSpacing = textView.getLetterSpacing();
+        // text-transform sets all caps by transformation method
+        mTransformationMethod = textView.getTransformationMethod();
+    }
+
+    /**
+     * @param textView a TextView which is not styled yet
+     */
+    public static TextViewDefaults of(@NonNull TextView textView) {
+        return new TextViewDefaults(textView);
+    }
+
+    public void restore(@NonNull TextView textView) {
+        textView.setText(null);
+        textView.setMovementMethod(null);
+        textView.setFocusable(false);
+        textView.setTextColor(mTextColors);
+        textView.setLinkTextColor(mLinkTextColors);
+        textView.setTypeface(mTypeface);
+        textView.setGravity(mGravity);
+        textView.setLineSpacing(mLineSpacingExtra, mLineSpacingMultiplier);
+        textView.setPaintFlags(mPaintFlags);
+        textView.setEllipsize(mEllipsize);
+        textView.setLetterSpacing(mLetterSpacing);
+        textView.setTransformationMethod(mTransformationMethod);
+    }
+}
@@ -0,0 +1,28 @@
+package com.mozz.htmlnative;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Yang Tao, 17/8/4.
+ */
+public class HNListAdapterTest {
+    @Test
+    public void bind() throws Exception {
+        Map<String, String> item = new HashMap<>();
+        item.put("title", "hello");
+        item.put("count", "3");
+
+        assertTrue(HNListAdapter.bind("{{title}}", item).equals("hello"));
+        assertTrue(HNListAdapter.bind("{{ title }}, {{count}} new", item).equals("hello, 3 new"));
+        assertTrue(HNListAdapter.bind("no binding", item).equals("no binding"));
+
+        // missing key becomes empty, unclosed binding is kept as it is
+        assertTrue(HNListAdapter.bind("a{{missing}}b", item).equals("ab"));
+        assertTrue(HNListAdapter.bind("{{title}} {{count", item).equals("hello {{count"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.mozz.htmlnative;
+
+import com.mozz.htmlnative.css.TextAppearance;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Yang Tao, 17/7/24.
+ */
+public class InheritedStyleTest {
+    @Test
+    public void copyOnWrite() throws Exception {
+        InheritedStyle parent = new InheritedStyle().inherit();
+        parent.put("color", "red");
+        parent.put("font-size", "12px");
+
+        InheritedStyle child1 = parent.inherit();
+        InheritedStyle child2 = parent.inherit();
+        child1.put("color", "blue");
+
+        assertTrue(parent.get("color").equals("red"));
+        assertTrue(child1.get("color").equals("blue"));
+        assertTrue(child1.get("font-size").equals("12px"));
+        assertTrue(child2.get("color").equals("red"));
+
+        // parent changed after children inherit from it
+        parent.put("color", "green");
+        assertTrue(child2.get("color").equals("red"));
+    }
+
+    @Test
+    public void deepTree() throws Exception {
+        InheritedStyle style = new InheritedStyle();
+        for (int i = 0; i < 100; i++) {
+            style = style.inherit();
+            style.put("color", "c" + i);
+        }
+
+        // nearest one wins, and only one value is kept for each style
+        assertTrue(style.size() == 1);
+        assertTrue(style.get("color").equals("c99"));
+    }
+
+    @Test
+    public void textAppearanceShared() throws Exception {
+        InheritedStyle parent = new InheritedStyle().inherit();
+        assertTrue(parent.getTextAppearance() == TextAppearance.EMPTY);
+
+        parent.put("font-weight", "bold");
+        TextAppearance bold = parent.getTextAppearance();
+        assertTrue(!bold.isEmpty());
+
+        // resolved once, and shared by the children until they change a text style
+        InheritedStyle child = parent.inherit();
+        assertTrue(child.getTextAppearance() == bold);
+
+        child.put("font-style", "italic");
+        assertTrue(child.getTextAppearance() != bold);
+        assertTrue(parent.getTextAppearance() == bold);
+    }
+}
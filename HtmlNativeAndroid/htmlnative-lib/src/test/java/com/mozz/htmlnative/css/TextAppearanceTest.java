@@ -0,0 +1,51 @@
+package com.mozz.htmlnative.css;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Yang Tao, 17/7/29.
+ */
+public class TextAppearanceTest {
+    @Test
+    public void equality() throws Exception {
+        TextAppearance a = TextAppearance.of(TextAppearance.TEXT_COLOR | TextAppearance
+                .FONT_WEIGHT, 0, 0, 0xffff0000, true, false, 0, 0, 0);
+        TextAppearance b = TextAppearance.of(TextAppearance.TEXT_COLOR | TextAppearance
+                .FONT_WEIGHT, 0, 0, 0xffff0000, true, false, 0, 0, 0);
+        assertTrue(a.equals(b) && a.hashCode() == b.hashCode());
+
+        // styles not set do not matter
+        TextAppearance c = TextAppearance.of(TextAppearance.TEXT_COLOR | TextAppearance
+                .FONT_WEIGHT, 2, 12, 0xffff0000, true, true, 1, 1, 17);
+        assertTrue(a.equals(c));
+
+        TextAppearance d = TextAppearance.of(TextAppearance.TEXT_COLOR, 0, 0, 0xffff0000,
+                true, false, 0, 0, 0);
+        assertTrue(!a.equals(d));
+    }
+
+    @Test
+    public void sharedUntilChanged() throws Exception {
+        TextAppearance bold = TextAppearance.of(TextAppearance.FONT_WEIGHT, 0, 0, 0, true,
+                false, 0, 0, 0);
+
+        ComputedStyle computedStyle = new ComputedStyle();
+        computedStyle.setTextAppearance(bold);
+        assertTrue(computedStyle.getTextAppearance() == bold);
+
+        // a later style is set over the shared one, which is left unchanged
+        computedStyle.setItalic(true);
+        assertTrue(computedStyle.getTextAppearance().equals(TextAppearance.of(TextAppearance
+                .FONT_WEIGHT | TextAppearance.FONT_STYLE, 0, 0, 0, true, true, 0, 0, 0)));
+        assertTrue(bold.equals(TextAppearance.of(TextAppearance.FONT_WEIGHT, 0, 0, 0, true,
+                false, 0, 0, 0)));
+
+        // an appearance set after other text styles is copied over them
+        ComputedStyle other = new ComputedStyle();
+        other.setBold(false);
+        other.setTextAppearance(bold);
+        assertTrue(other.getTextAppearance() != bold && other.getTextAppearance().equals(bold));
+    }
+}
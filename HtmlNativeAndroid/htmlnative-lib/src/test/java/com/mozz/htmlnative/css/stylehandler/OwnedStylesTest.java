@@ -0,0 +1,32 @@
+package com.mozz.htmlnative.css.stylehandler;
+
+import com.mozz.htmlnative.css.StyleSymbols;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Yang Tao, 17/7/26.
+ */
+public class OwnedStylesTest {
+    @Test
+    public void compile() throws Exception {
+        OwnedStyles owned = OwnedStyles.compile(new String[]{"color", "font-size"});
+
+        assertTrue(owned.contains(StyleSymbols.lookup("color")));
+        assertTrue(owned.contains(StyleSymbols.lookup("font-size")));
+        assertTrue(!owned.contains(StyleSymbols.NO_SYMBOL));
+
+        // symbol interned after compiling
+        assertTrue(!owned.contains(StyleSymbols.intern("owned-styles-test")));
+    }
+
+    @Test
+    public void all() throws Exception {
+        OwnedStyles owned = OwnedStyles.compile(null);
+
+        assertTrue(owned.contains(StyleSymbols.NO_SYMBOL));
+        assertTrue(owned.contains(StyleSymbols.intern("color")));
+    }
+}
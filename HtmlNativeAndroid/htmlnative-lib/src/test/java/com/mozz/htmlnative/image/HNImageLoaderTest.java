@@ -0,0 +1,67 @@
+package com.mozz.htmlnative.image;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Yang Tao, 17/8/8.
+ */
+public class HNImageLoaderTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void sampleSize() throws Exception {
+        assertTrue(HNImageLoader.sampleSize(1000, 800, 0, 0) == 1);
+        assertTrue(HNImageLoader.sampleSize(1000, 800, 1000, 800) == 1);
+        assertTrue(HNImageLoader.sampleSize(1000, 800, 500, 400) == 2);
+        assertTrue(HNImageLoader.sampleSize(1000, 800, 300, 100) == 2);
+        assertTrue(HNImageLoader.sampleSize(4000, 3000, 500, 0) == 8);
+        assertTrue(HNImageLoader.sampleSize(100, 100, 500, 500) == 1);
+    }
+
+    @Test
+    public void loadFromDiskCache() throws Exception {
+        final byte[] image = {1, 2, 3, 4};
+        final int[] opened = {0};
+        ImageSource source = new ImageSource() {
+            @NonNull
+            @Override
+            public InputStream open(@NonNull String url) throws IOException {
+                opened[0]++;
+                return new ByteArrayInputStream(image);
+            }
+        };
+
+        ImageDiskCache diskCache = new ImageDiskCache(mFolder.newFolder(), 1024);
+
+        assertTrue(Arrays.equals(HNImageLoader.load(source, diskCache, "http://a/1.png"), image));
+        assertTrue(Arrays.equals(HNImageLoader.load(source, diskCache, "http://a/1.png"), image));
+        assertTrue(opened[0] == 1);
+
+        HNImageLoader.load(source, diskCache, "http://a/2.png");
+        assertTrue(opened[0] == 2);
+    }
+
+    @Test
+    public void diskCacheTrim() throws Exception {
+        ImageDiskCache diskCache = new ImageDiskCache(mFolder.newFolder(), 10);
+        diskCache.put("a", new byte[6]);
+        diskCache.put("b", new byte[6]);
+
+        // the one just written is kept
+        assertTrue(diskCache.get("a") == null);
+        assertTrue(diskCache.get("b") != null);
+    }
+}
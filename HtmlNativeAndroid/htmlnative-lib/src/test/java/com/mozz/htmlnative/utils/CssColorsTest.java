@@ -0,0 +1,50 @@
+package com.mozz.htmlnative.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Yang Tao, 17/7/27.
+ */
+public class CssColorsTest {
+    private static final int RED = 0xffff0000;
+
+    @Test
+    public void hex() throws Exception {
+        assertTrue(CssColors.parse("#ff0000") == RED);
+        assertTrue(CssColors.parse("#F00") == RED);
+        assertTrue(CssColors.parse("#ffff0000") == RED);
+        assertTrue(CssColors.parse("#8f00") == 0x88ff0000);
+    }
+
+    @Test
+    public void functions() throws Exception {
+        assertTrue(CssColors.parse("rgb(255,0,0)") == RED);
+        assertTrue(CssColors.parse("rgb(100%, 0%, 0%)") == RED);
+        assertTrue(CssColors.parse("rgba(255,0,0,0.5)") == 0x80ff0000);
+        assertTrue(CssColors.parse("hsl(0,100%,50%)") == RED);
+        assertTrue(CssColors.parse("hsl(120, 100%, 25%)") == 0xff008000);
+        assertTrue(CssColors.parse("hsla(240,100%,50%,0)") == 0x000000ff);
+    }
+
+    @Test
+    public void named() throws Exception {
+        assertTrue(CssColors.parse("red") == RED);
+        assertTrue(CssColors.parse("RebeccaPurple") == 0xff663399);
+        assertTrue(CssColors.parse("transparent") == 0);
+    }
+
+    @Test
+    public void wrong() throws Exception {
+        String[] wrongs = {"", "#12", "#ggg", "rgb(1,2)", "foo(1,2,3)", "notacolor"};
+        for (String wrong : wrongs) {
+            try {
+                CssColors.parse(wrong);
+                assertTrue(wrong, false);
+            } catch (IllegalArgumentException ignored) {
+
+            }
+        }
+    }
+}